@@ -0,0 +1,57 @@
+package ringroad;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Field.createCars() で車を発生させる時間を測るベンチマーク
+ *
+ * 空いている時と渋滞寸前の時とで、1台あたりの時間を比べる。
+ * 呼び出しごとに指定の密度の初期状態を作り直し(この時間は測らない)、
+ * そこに BATCH 台を発生させる。
+ * -prof gc の割り当てバイト数には、初期状態を作り直す分も含まれる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreateCarsBenchmark {
+
+	/** 1回の呼び出しで発生させる台数 */
+	static final int BATCH = 100;
+
+	/** 発生させる前の密度 */
+	@Param({"0.05", "0.95"})
+	public double density;
+
+	private Field field;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		field = new Field(10, 20, 8, 10);
+		field.setSeed(1);
+		field.initialize(density);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int createCars() {
+		field.createCars(BATCH);
+		return field.carCount;
+	}
+}
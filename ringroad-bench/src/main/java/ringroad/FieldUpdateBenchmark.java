@@ -0,0 +1,94 @@
+package ringroad;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Field.update() のスループットを測るベンチマーク
+ *
+ * 格子の大きさ・初期密度・FieldかGradualFieldかを変えて測る。
+ * 1ステップの時間に加えて、補助カウンタ siteUpdates に
+ * 1秒あたりに更新したサイト数(サイト数 × ステップ数)を出す。
+ *
+ * 車の発生はしないため、測定中は目的地に着いた車が抜けて密度が下がっていく。
+ * 測定のイテレーションごとに初期状態を作り直して、密度のずれを抑える。
+ *
+ * 実行方法(プロジェクトのルートで):
+ * <pre>
+ *   mvn package
+ *   java -jar ringroad-bench/target/benchmarks.jar              全てのベンチマーク
+ *   java -jar ringroad-bench/target/benchmarks.jar FieldUpdate  このベンチマークだけ
+ *   java -jar ringroad-bench/target/benchmarks.jar -prof gc     1操作あたりの割り当てバイト数も出す
+ * </pre>
+ * -prof gc の出力では gc.alloc.rate.norm (1操作あたりのバイト数) を見る。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldUpdateBenchmark {
+
+	/** Field(全て1車線) か GradualField(内側ほど車線数が多い) か */
+	@Param({"Field", "GradualField"})
+	public String type;
+
+	/** 放射道路の本数 */
+	@Param({"10", "40"})
+	public int numX;
+
+	/** 放射道路の1区間の長さ */
+	@Param({"5", "20"})
+	public int dY;
+
+	/** 初期密度 */
+	@Param({"0.1", "0.3", "0.6"})
+	public double density;
+
+	private Field field;
+
+	/**
+	 * 更新したサイト数を数える補助カウンタ
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Sites {
+		public long siteUpdates;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			siteUpdates = 0;
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		if (type.equals("Field"))
+			field = new Field(10, numX, 4, dY);
+		else
+			field = new GradualField(10, numX, new int[] {3, 2, 1, 1}, dY);
+		field.setSeed(1);
+		field.setSpawnProbability(0);
+		field.initialize(density);
+	}
+
+	@Benchmark
+	public int update(Sites sites) {
+		sites.siteUpdates += field.siteCount;
+		return field.update();
+	}
+}
@@ -0,0 +1,61 @@
+package ringroad;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RoadSite のキュー操作の時間を測るベンチマーク
+ *
+ * 車線数分の車を enqueue() で詰めてから poll() で全て取り出すまでを1回とする。
+ * 生成済みの車を使い回すので、-prof gc で割り当てが0になることも確認できる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoadSiteBenchmark {
+
+	/** 車線数(キューの容量) */
+	@Param({"1", "2", "3"})
+	public int lanes;
+
+	private RoadSite site;
+	private Car[] cars;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Field field = new Field(10, 10, 4, 5);
+		field.setSeed(1);
+		site = new RoadSite(0, 0, 0, 1, lanes);
+		cars = new Car[lanes];
+		for (int j = 0; j < lanes; j++) {
+			cars[j] = new Car(field, 0, 0, 0, 1);
+		}
+	}
+
+	@Benchmark
+	public Car enqueuePoll() {
+		for (int j = 0; j < cars.length; j++) {
+			site.enqueue(cars[j]);
+		}
+		Car car = null;
+		for (int j = 0; j < cars.length; j++) {
+			car = site.poll();
+		}
+		return car;
+	}
+}
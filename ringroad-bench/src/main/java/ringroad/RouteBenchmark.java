@@ -0,0 +1,88 @@
+package ringroad;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 経路の決定にかかる時間を測るベンチマーク
+ *
+ * compute は経路の計算(Route.compute)だけを、
+ * newCar は目的地の抽選と経路の決定を含む車1台の生成(Carのコンストラクタ)を測る。
+ * newCarDynamic は DynamicRouter の最短経路木から最初の交差点で抜ける交差点番号を引く場合の newCar である。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouteBenchmark {
+
+	// 前もって抽選しておく出発地・目的地の組の数(2のべき)
+	private static final int N = 1024;
+
+	private Field field;
+
+	// DynamicRouterを設定したField
+	private Field dynamic;
+
+	// 出発して1番目に通る交差点と、目的地の交差点・交差点番号
+	private final int[] origX = new int[N];
+	private final int[] origY = new int[N];
+	private final int[] destX = new int[N];
+	private final int[] destY = new int[N];
+	private final int[] exit = new int[N];
+
+	// 車を生成する出発地の道路サイトのステップ数
+	private final int[] step = new int[N];
+
+	private int i;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		field = new Field(10, 20, 8, 10);
+		field.setSeed(1);
+		FastRandom random = new FastRandom(2);
+		for (int j = 0; j < N; j++) {
+			origX[j] = random.nextInt(field.numX);
+			origY[j] = random.nextInt(field.numY);
+			destX[j] = random.nextInt(field.numX);
+			destY[j] = random.nextInt(field.numY);
+			exit[j] = random.nextInt(4);
+			step[j] = random.nextInt(field.lengthAt(origX[j], origY[j], 0) + 1);
+		}
+
+		dynamic = new Field(10, 20, 8, 10);
+		dynamic.setSeed(1);
+		dynamic.setRouter(new DynamicRouter(dynamic));
+	}
+
+	@Benchmark
+	public long compute() {
+		int j = i++ & (N - 1);
+		return Route.compute(field.numX, origX[j], origY[j], destX[j], destY[j], exit[j]);
+	}
+
+	@Benchmark
+	public Car newCar() {
+		int j = i++ & (N - 1);
+		return new Car(field, origX[j], origY[j], 0, step[j]);
+	}
+
+	@Benchmark
+	public Car newCarDynamic() {
+		int j = i++ & (N - 1);
+		return new Car(dynamic, origX[j], origY[j], 0, step[j]);
+	}
+}
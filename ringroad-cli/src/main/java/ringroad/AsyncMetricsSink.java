@@ -0,0 +1,115 @@
+package ringroad;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 計測値の集計と保存を、シミュレーションとは別のスレッドで行なう出力先
+ *
+ * record() はレコードをリングバッファ(MetricsRing)に書き込むだけで戻り、
+ * ディスクへの書き込みは待たない。バックグラウンドの消費者スレッドが
+ * リングバッファから読み出して、集計(MetricsSummary)と保存先の出力先に渡す。
+ * リングバッファが満杯の時だけ、空くまで record() が待つ。
+ *
+ * 集計結果は close() の後に参照する。
+ */
+public class AsyncMetricsSink implements MetricsSink {
+
+	// リングバッファの容量(レコード数)
+	private static final int CAPACITY = 1 << 16;
+
+	// 読み出すレコードがない時に消費者スレッドが休む時間
+	private static final long PARK_NANOS = 100000;
+
+	private final MetricsRing ring = new MetricsRing(CAPACITY);
+	private final MetricsSink out;
+	private final MetricsSummary summary;
+	private final Thread consumer;
+
+	private volatile boolean closed;
+
+	// 消費者スレッドで発生した例外
+	private volatile Throwable failure;
+
+	/**
+	 * コンストラクタ。消費者スレッドを起動する
+	 *
+	 * @param out     保存先の出力先(close() で閉じる)
+	 * @param summary 集計先
+	 */
+	public AsyncMetricsSink(MetricsSink out, MetricsSummary summary) {
+		this.out = out;
+		this.summary = summary;
+		consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "metrics");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	@Override
+	public void record(int step, int moved, int carCount, int deleted, int spawned)
+			throws IOException {
+		while (!ring.offer(step, moved, carCount, deleted, spawned)) {
+			checkFailure();
+			Thread.yield();
+		}
+	}
+
+	// 消費者スレッドの本体
+	private void consume() {
+		MetricsSink tee = new MetricsSink() {
+			@Override
+			public void record(int step, int moved, int carCount, int deleted, int spawned)
+					throws IOException {
+				summary.record(step, moved, carCount, deleted, spawned);
+				out.record(step, moved, carCount, deleted, spawned);
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		try {
+			while (true) {
+				// closedを先に読むので、closedの後に書かれたレコードはない
+				boolean last = closed;
+				if (ring.drain(tee) == 0) {
+					if (last) break;
+					LockSupport.parkNanos(PARK_NANOS);
+				}
+			}
+		} catch (Throwable e) {
+			failure = e;
+		}
+	}
+
+	// 消費者スレッドで例外が発生していれば投げ直す
+	private void checkFailure() throws IOException {
+		Throwable e = failure;
+		if (e == null) return;
+		if (e instanceof IOException) throw (IOException) e;
+		throw new IOException("計測値の保存に失敗しました", e);
+	}
+
+	/**
+	 * 残りのレコードを全て保存してから、消費者スレッドを終了し、保存先を閉じる
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		LockSupport.unpark(consumer);
+		try {
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("計測値の保存の終了待ちが中断されました", e);
+		} finally {
+			out.close();
+		}
+		checkFailure();
+	}
+}
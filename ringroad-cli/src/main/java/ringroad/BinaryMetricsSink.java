@@ -0,0 +1,106 @@
+package ringroad;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 計測値を固定長のバイナリレコードでファイルに書き出す出力先
+ *
+ * ファイル形式(リトルエンディアン):
+ *   ヘッダ  : MAGIC, レコード長(バイト), 全サイト数 (各int)
+ *   レコード: step, moved, carCount, deleted, spawned (各int)
+ * レコードはバッファに溜めて、一杯になった時とclose()の時にまとめて書き込む。
+ * 読み出しは replay() でファイルをメモリにマップして行なう。
+ */
+public class BinaryMetricsSink implements MetricsSink {
+
+	/** ファイルの先頭の識別子 ("RRM1") */
+	public static final int MAGIC = 0x52524D31;
+
+	/** 1レコードのバイト数 */
+	public static final int RECORD_BYTES = 20;
+
+	// 1回にまとめて書き込むレコード数
+	private static final int BATCH = 4096;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	/**
+	 * コンストラクタ。ファイルを作成してヘッダを書き込む
+	 *
+	 * @param file      出力ファイル
+	 * @param siteCount 全サイト数(密度の計算に使う)
+	 */
+	public BinaryMetricsSink(File file, int siteCount) throws IOException {
+		channel = new FileOutputStream(file).getChannel();
+		buffer = ByteBuffer.allocateDirect(RECORD_BYTES * BATCH).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(RECORD_BYTES).putInt(siteCount);
+	}
+
+	@Override
+	public void record(int step, int moved, int carCount, int deleted, int spawned)
+			throws IOException {
+		if (buffer.remaining() < RECORD_BYTES) flush();
+		buffer.putInt(step).putInt(moved).putInt(carCount).putInt(deleted).putInt(spawned);
+	}
+
+	// バッファの内容をファイルに書き込む
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * ファイルの全サイト数を読み出す
+	 */
+	public static int siteCount(File file) throws IOException {
+		try (FileChannel ch = new FileInputStream(file).getChannel()) {
+			return header(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+		}
+	}
+
+	/**
+	 * ファイルに記録された計測値を、順に別の出力先へ渡す
+	 *
+	 * @param file 読み出すファイル
+	 * @param out  計測値を渡す出力先(closeはしない)
+	 */
+	public static void replay(File file, MetricsSink out) throws IOException {
+		try (FileChannel ch = new FileInputStream(file).getChannel()) {
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			header(buf);
+			while (buf.remaining() >= RECORD_BYTES) {
+				out.record(buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt());
+			}
+		}
+	}
+
+	// ヘッダを読み飛ばして、全サイト数を返す
+	private static int header(ByteBuffer buf) throws IOException {
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		if (buf.remaining() < 12 || buf.getInt() != MAGIC)
+			throw new IOException("計測値のファイルではありません");
+		if (buf.getInt() != RECORD_BYTES)
+			throw new IOException("レコード長が異なります");
+		return buf.getInt();
+	}
+}
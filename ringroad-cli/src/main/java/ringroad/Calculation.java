@@ -0,0 +1,151 @@
+package ringroad;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 数値計算を行ない、データを取得してファイルに保存する
+ * (バイナリ形式はCsvMetricsSinkでCSVファイルに変換できる)
+ */
+public class Calculation {
+
+	// 1回のシミュレーションの最大ステップ数
+	private static final int MAX_STEPS = 10000;
+
+	// 何ステップ続けて車が流れなければ渋滞とみなすか
+	private static final int PATIENCE = 50;
+
+	/**
+	 * コマンドラインから数値計算を実行する
+	 *
+	 * 引数: [rc x ys dy pn n [csv]] (省略時は 10 10 3,2,1,1 5 5.0 100)
+	 *   rc : 中心半径
+	 *   x  : 放射道路の本数
+	 *   ys : 環状道路の車線数(内側から、カンマ区切り)
+	 *   dy : 放射道路の1区間の長さ
+	 *   pn : 1ステップあたりの発生台数
+	 *   n  : 繰り返す回数
+	 *   csv: 指定するとCSV形式で保存する(省略時はバイナリ形式)
+	 */
+	public static void main(String[] args) {
+		// パラメータを設定する
+		int rc = 10;
+		int x = 10;
+		int[] ys = {3,2,1,1};
+		int dy = 5;
+		double pn = 5.0;
+		int n = 100;
+		boolean csv = false;
+		if (args.length == 6 || (args.length == 7 && args[6].equals("csv"))) {
+			rc = Integer.parseInt(args[0]);
+			x = Integer.parseInt(args[1]);
+			String[] t = args[2].split(",");
+			ys = new int[t.length];
+			for (int i = 0; i < t.length; i++) {
+				ys[i] = Integer.parseInt(t[i].trim());
+			}
+			dy = Integer.parseInt(args[3]);
+			pn = Double.parseDouble(args[4]);
+			n = Integer.parseInt(args[5]);
+			csv = (args.length == 7);
+		} else if (args.length != 0) {
+			System.err.println("usage: Calculation [rc x ys dy pn n [csv]]  (例: 10 10 3,2,1,1 5 5.0 100)");
+			System.exit(1);
+		}
+
+		// 数値計算をn回、全てのコアを使って並列に繰り返す
+		SimulationResult[] results = new Ensemble().run(rc, x, ys, dy, pn, n, new File("."), csv);
+		for (int i = 0; i < results.length; i++) {
+			System.out.println("[" + i + "] " + results[i]);
+		}
+	}
+
+	/**
+	 * シミュレーションを実行し、計測値をカレントディレクトリにバイナリ形式で保存する
+	 * (1回だけ実行する場合用。終わったら結果と平均速度などを標準出力に表示する)
+	 *
+	 * @param rc    中心半径
+	 * @param x     放射道路の本数
+	 * @param ys    環状道路の車線数の配列
+	 * @param dy    放射道路の1区間の長さ
+	 * @param pn    1ステップあたりの発生台数
+	 * @param times 繰り返しの番号(乱数の種にも使う)
+	 * @return      シミュレーションの結果(渋滞するまでのステップ数など)
+	 */
+	public static SimulationResult simulate(int rc, int x, int[] ys, int dy, double pn, int times) {
+		return simulate(rc, x, ys, dy, pn, times, new File("."), false, true);
+	}
+
+	/**
+	 * シミュレーションを実行する
+	 * (Ensembleが複数のスレッドから呼び出すので、標準出力には何も表示しない)
+	 *
+	 * @param rc    中心半径
+	 * @param x     放射道路の本数
+	 * @param ys    環状道路の車線数の配列
+	 * @param dy    放射道路の1区間の長さ
+	 * @param pn    1ステップあたりの発生台数
+	 * @param times 繰り返しの番号(乱数の種にも使う)
+	 * @param dir   計測値を保存するディレクトリ
+	 * @param csv   CSV形式で保存するならtrue、バイナリ形式ならfalse
+	 * @return      シミュレーションの結果(渋滞するまでのステップ数など)
+	 */
+	public static SimulationResult simulate(int rc, int x, int[] ys, int dy, double pn, int times,
+			File dir, boolean csv) {
+		return simulate(rc, x, ys, dy, pn, times, dir, csv, false);
+	}
+
+	// verboseなら、終わったときに結果と平均速度・消滅した台数を標準出力に表示する
+	private static SimulationResult simulate(int rc, int x, int[] ys, int dy, double pn, int times,
+			File dir, boolean csv, boolean verbose) {
+
+		StringBuilder y_str = new StringBuilder("{");
+		for (int y : ys) {
+			y_str.append(y).append(',');
+		}
+		y_str.append('}');
+
+		// 新規ファイル作成
+		String fileName = "Rc" + rc + "_x" + x + "_y" + y_str
+				+ "_dy" + dy + "_pn" + pn + "[" + times + "]" + (csv ? ".csv" : ".bin");
+		File file = new File(dir, fileName);
+
+		// Fieldをインスタンス化
+		Field field = new GradualField(rc, x, ys, dy);
+		field.setSpawnProbability(pn);
+		// 繰り返しの番号を乱数の種とし、各回を再現できるようにする
+		field.setSeed(times);
+
+		// 計測値の集計と保存は別のスレッドで行なう
+		MetricsSummary summary = new MetricsSummary(field.siteCount, 100);
+		SimulationResult result;
+		try (MetricsSink sink = new AsyncMetricsSink(csv ? new CsvMetricsSink(file, field.siteCount)
+				: new BinaryMetricsSink(file, field.siteCount), summary)) {
+			result = run(field, sink);
+		} catch (IOException e) {
+			throw new RuntimeException("計測値を保存できません: " + file, e);
+		}
+		if (verbose)
+			System.out.println("終了: " + result + ", 平均速度 " + summary.meanVelocity()
+					+ ", 消滅 " + summary.totalDeleted() + "台");
+		return result;
+	}
+
+	/**
+	 * Fieldを渋滞するか最大ステップ数に達するまで更新し、1ステップごとの計測値を記録する
+	 *
+	 * @param field 更新するField(発生台数と乱数の種は設定しておく)
+	 * @param sink  計測値の出力先(closeはしない)
+	 * @return      シミュレーションの結果
+	 */
+	public static SimulationResult run(Field field, MetricsSink sink) throws IOException {
+		// 渋滞したら打ち切る
+		JamDetector detector = new JamDetector(PATIENCE);
+		for (int step = 0; step < MAX_STEPS; step++) {
+			int moved = field.update();
+			sink.record(step, moved, field.carCount, field.getDeleted(), field.getSpawned());
+			if (detector.step(field, moved)) break;
+		}
+		return detector.result(field);
+	}
+}
@@ -0,0 +1,88 @@
+package ringroad;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * 計測値をCSVファイルに書き出す出力先
+ *
+ * 列は Step, Velocity(動いた台数/車の台数), Density(車の台数/全サイト数),
+ * Deleted(消滅した台数), Spawned(発生した台数)。
+ * Windows上のExcelでファイルを開けるように、Shift-JISでエンコードする。
+ * 1行分の文字列はStringBuilderを使い回して作り、書き込みはバッファでまとめる。
+ */
+public class CsvMetricsSink implements MetricsSink {
+
+	private static final String BR = System.getProperty("line.separator");
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder(64);
+	private final int siteCount;
+
+	/**
+	 * コンストラクタ。ファイルを作成して見出し行を書き込む
+	 *
+	 * @param file      出力ファイル
+	 * @param siteCount 全サイト数(密度の計算に使う)
+	 */
+	public CsvMetricsSink(File file, int siteCount) throws IOException {
+		this.siteCount = siteCount;
+		writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), "Shift_JIS"), 1 << 16);
+		writer.write("Step, Velocity, Density, Deleted, Spawned" + BR);
+	}
+
+	@Override
+	public void record(int step, int moved, int carCount, int deleted, int spawned)
+			throws IOException {
+		line.setLength(0);
+		line.append(step).append(", ")
+			.append(((double) moved) / carCount).append(", ")
+			.append(((double) carCount) / siteCount).append(", ")
+			.append(deleted).append(", ")
+			.append(spawned).append(BR);
+		writer.append(line);
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * BinaryMetricsSinkで書き出したファイルをCSVファイルに変換する
+	 *
+	 * @param binary 変換元のファイル
+	 * @param csv    変換先のファイル
+	 */
+	public static void export(File binary, File csv) throws IOException {
+		try (CsvMetricsSink out = new CsvMetricsSink(csv, BinaryMetricsSink.siteCount(binary))) {
+			BinaryMetricsSink.replay(binary, out);
+		}
+	}
+
+	/**
+	 * コマンドラインからバイナリのファイルをCSVファイルに変換する
+	 *
+	 * 引数: 変換元のファイル [変換先のファイル] (省略時は拡張子を.csvにする)
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: CsvMetricsSink binary [csv]");
+			System.exit(1);
+		}
+		File binary = new File(args[0]);
+		File csv;
+		if (args.length >= 2) {
+			csv = new File(args[1]);
+		} else {
+			String name = binary.getName().replaceFirst("\\.[^.]*$", "");
+			csv = new File(binary.getAbsoluteFile().getParentFile(), name + ".csv");
+		}
+		export(binary, csv);
+	}
+}
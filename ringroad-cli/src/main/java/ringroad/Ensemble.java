@@ -0,0 +1,103 @@
+package ringroad;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 独立したシミュレーション(レプリカ)を複数のスレッドで同時に実行するクラス
+ *
+ * 各レプリカは自分のFieldを生成して最後まで実行し、
+ * 車は自分が属するFieldだけを参照するため、他のレプリカと状態を共有しない。
+ * レプリカ番号はCalculation.simulateのtimesとして渡されて各レプリカの乱数の種になり、
+ * 出力ファイル名もレプリカごとに異なる。
+ */
+public class Ensemble {
+
+	/**
+	 * 同時に実行するレプリカ数の上限
+	 */
+	private final int parallelism;
+
+	/**
+	 * コンストラクタ
+	 * 利用可能な全てのコアを使う。
+	 */
+	public Ensemble() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param parallelism 同時に実行するレプリカ数の上限
+	 */
+	public Ensemble(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * n個のレプリカを並列に実行する
+	 *
+	 * @param rc 中心半径
+	 * @param x  放射道路の本数
+	 * @param ys 環状道路の車線数の配列
+	 * @param dy 放射道路の1区間の長さ
+	 * @param pn 1ステップあたりの発生台数
+	 * @param n  レプリカ数
+	 * @return   各レプリカの結果(レプリカ番号順)
+	 */
+	public SimulationResult[] run(int rc, int x, int[] ys, int dy, double pn, int n) {
+		return run(rc, x, ys, dy, pn, n, new File("."), false);
+	}
+
+	/**
+	 * n個のレプリカを並列に実行する
+	 *
+	 * @param rc  中心半径
+	 * @param x   放射道路の本数
+	 * @param ys  環状道路の車線数の配列
+	 * @param dy  放射道路の1区間の長さ
+	 * @param pn  1ステップあたりの発生台数
+	 * @param n   レプリカ数
+	 * @param dir 計測値を保存するディレクトリ
+	 * @param csv CSV形式で保存するならtrue、バイナリ形式ならfalse
+	 * @return    各レプリカの結果(レプリカ番号順)
+	 */
+	public SimulationResult[] run(final int rc, final int x, final int[] ys, final int dy,
+			final double pn, int n, final File dir, final boolean csv) {
+		List<Callable<SimulationResult>> replicas = new ArrayList<Callable<SimulationResult>>(n);
+		for (int i = 0; i < n; i++) {
+			final int times = i;
+			replicas.add(new Callable<SimulationResult>() {
+				@Override
+				public SimulationResult call() {
+					return Calculation.simulate(rc, x, ys, dy, pn, times, dir, csv);
+				}
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Future<SimulationResult>> futures = pool.invokeAll(replicas);
+			SimulationResult[] results = new SimulationResult[n];
+			for (int i = 0; i < n; i++) {
+				results[i] = futures.get(i).get();
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("レプリカの実行が中断されました", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("レプリカの実行に失敗しました", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
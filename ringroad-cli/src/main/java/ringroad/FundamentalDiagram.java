@@ -0,0 +1,245 @@
+package ringroad;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 基本図(密度と流量の関係)を計測するクラス
+ *
+ * 密度ごとに、密度を一定に保つモード(Field.setConstantDensity)のGradualFieldに
+ * その密度の車を配置し、ウォームアップのステップだけ更新して定常状態に近づけてから、
+ * 計測のステップの間の流量(動いた台数/全サイト数)と速度(動いた台数/車の台数)を時間平均する。
+ * 交差点サイトが全て埋まって車を回すことしかできない交差点の4台の移動は、
+ * 渋滞の判定(JamDetector)と同じく、流れとみなさず動いた台数から除く。
+ * 密度の点どうしは独立なので、ForkJoinPoolで並列に計測する。
+ */
+public class FundamentalDiagram {
+
+	private static final String BR = System.getProperty("line.separator");
+
+	/**
+	 * 1つの密度での計測値
+	 */
+	public static final class Point {
+		/** 密度(計測の間の車の台数/全サイト数 の平均) */
+		public final double density;
+		/** 1ステップ・1サイトあたりの流量の平均 */
+		public final double flow;
+		/** 1ステップ・1台あたりの速度の平均(車がいなければ0) */
+		public final double velocity;
+
+		Point(double density, double flow, double velocity) {
+			this.density = density;
+			this.flow = flow;
+			this.velocity = velocity;
+		}
+
+		@Override
+		public String toString() {
+			return density + ", " + flow + ", " + velocity;
+		}
+	}
+
+	private final int rc;
+	private final int x;
+	private final int[] ys;
+	private final int dy;
+
+	// 各環状道路上の交差点の種類
+	private IntersectionType[] types;
+
+	// ウォームアップと計測のステップ数
+	private int warmup = 1000;
+	private int measure = 1000;
+
+	// 乱数の種
+	private long seed;
+
+	// 同時に計測する密度の点の数の上限
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param rc 中心半径
+	 * @param x  放射道路の本数
+	 * @param ys 環状道路の車線数の配列
+	 * @param dy 放射道路の1区間の長さ
+	 */
+	public FundamentalDiagram(int rc, int x, int[] ys, int dy) {
+		this.rc = rc;
+		this.x = x;
+		this.ys = ys;
+		this.dy = dy;
+		this.types = IntersectionType.inner(ys.length, 0);
+	}
+
+	/**
+	 * 各環状道路上の交差点の種類を設定する(デフォルトは全てラウンドアバウト)
+	 *
+	 * @param types 交差点の種類(内側から;環状道路の本数と同じ個数)
+	 */
+	public void setTypes(IntersectionType[] types) {
+		if (types.length != ys.length)
+			throw new IllegalArgumentException("交差点の種類の数が環状道路の本数と異なります: " + types.length);
+		this.types = types;
+	}
+
+	/**
+	 * ウォームアップと計測のステップ数を設定する(デフォルトはどちらも1000)
+	 */
+	public void setSteps(int warmup, int measure) {
+		if (warmup < 0 || measure < 1)
+			throw new IllegalArgumentException("ステップ数が不正です: " + warmup + ", " + measure);
+		this.warmup = warmup;
+		this.measure = measure;
+	}
+
+	/**
+	 * 乱数の種を設定する(全ての密度の点で同じ種を使う)
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * 同時に計測する密度の点の数の上限を設定する(デフォルトは全てのコア数)
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * 各密度の点を並列に計測する
+	 *
+	 * @param densities 初期密度の配列(0.0 <= dens <= 1.0)
+	 * @return          各密度の計測値(densitiesの順)
+	 */
+	public Point[] run(double[] densities) {
+		List<Callable<Point>> points = new ArrayList<Callable<Point>>(densities.length);
+		for (final double dens : densities) {
+			points.add(new Callable<Point>() {
+				@Override
+				public Point call() {
+					return measure(dens);
+				}
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Future<Point>> futures = pool.invokeAll(points);
+			Point[] results = new Point[densities.length];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = futures.get(i).get();
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("計測が中断されました", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("計測に失敗しました", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 1つの密度について計測する
+	 *
+	 * @param dens 初期密度(0.0 <= dens <= 1.0)
+	 */
+	public Point measure(double dens) {
+		Field field = new GradualField(rc, x, ys, dy, types);
+		field.setConstantDensity(true);
+		field.setSeed(seed);
+		field.initialize(dens);
+
+		for (int step = 0; step < warmup; step++) {
+			field.update();
+		}
+
+		long moved = 0;
+		long cars = 0;
+		for (int step = 0; step < measure; step++) {
+			moved += field.update() - 4 * field.getRotating();
+			cars += field.carCount;
+		}
+		return new Point((double) cars / measure / field.siteCount,
+				(double) moved / measure / field.siteCount,
+				(cars == 0 ? 0 : (double) moved / cars));
+	}
+
+	/**
+	 * コマンドラインから基本図を計測し、CSV形式で保存する
+	 *
+	 * 引数は 名前=値 の形式で、省略した名前はデフォルト値を使う。
+	 *   rc=10          中心半径
+	 *   x=10           放射道路の本数
+	 *   ys=3-2-1-1     環状道路の車線数の配列
+	 *   dy=5           放射道路の1区間の長さ
+	 *   dens=0:1:0.05  初期密度のリスト("1,2,3" または "開始:終了:間隔")
+	 *   interchange=0  立体交差にする内側の環状道路の本数
+	 *   warmup=1000    ウォームアップのステップ数
+	 *   measure=1000   計測のステップ数
+	 *   seed=0         乱数の種
+	 *   threads=       同時に計測する点の数(省略時は全てのコア数)
+	 *   out=fd.csv     保存するファイル
+	 */
+	public static void main(String[] args) throws IOException {
+		Map<String, String> opt = new HashMap<String, String>();
+		opt.put("rc", "10");
+		opt.put("x", "10");
+		opt.put("ys", "3-2-1-1");
+		opt.put("dy", "5");
+		opt.put("dens", "0:1:0.05");
+		opt.put("interchange", "0");
+		opt.put("warmup", "1000");
+		opt.put("measure", "1000");
+		opt.put("seed", "0");
+		opt.put("out", "fd.csv");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0 || !opt.containsKey(arg.substring(0, eq)) && !arg.startsWith("threads=")) {
+				System.err.println("usage: FundamentalDiagram [rc=..] [x=..] [ys=3-2-1-1] [dy=..]"
+						+ " [dens=0:1:0.05] [interchange=..] [warmup=..] [measure=..] [seed=..] [threads=..] [out=fd.csv]");
+				System.exit(1);
+			}
+			opt.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+
+		FundamentalDiagram fd = new FundamentalDiagram(Integer.parseInt(opt.get("rc")),
+				Integer.parseInt(opt.get("x")), Sweep.parseLanes(opt.get("ys")),
+				Integer.parseInt(opt.get("dy")));
+		fd.setTypes(IntersectionType.inner(fd.ys.length, Integer.parseInt(opt.get("interchange"))));
+		fd.setSteps(Integer.parseInt(opt.get("warmup")), Integer.parseInt(opt.get("measure")));
+		fd.setSeed(Long.parseLong(opt.get("seed")));
+		if (opt.containsKey("threads"))
+			fd.setParallelism(Integer.parseInt(opt.get("threads")));
+
+		Point[] points = fd.run(Sweep.parseValues(opt.get("dens")));
+
+		File out = new File(opt.get("out"));
+		try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), "UTF-8"))) {
+			w.write("Density, Flow, Velocity" + BR);
+			for (Point p : points) {
+				w.write(p + BR);
+				System.out.println(p);
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package ringroad;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1ステップごとの計測値を、シミュレーションのスレッド(生産者)から
+ * 集計・保存のスレッド(消費者)へ渡す、単一生産者・単一消費者のリングバッファ
+ *
+ * ロックは使わず、書き込み位置と読み出し位置の2つのカウンタだけで同期する。
+ * 生産者はレコードを書いてから書き込み位置を進め、
+ * 消費者はレコードを読み終えてから読み出し位置を進める。
+ * レコードはint配列に並べて格納し、レコードごとのオブジェクトは作らない。
+ */
+class MetricsRing {
+
+	// 1レコードのint数 (step, moved, carCount, deleted, spawned)
+	private static final int FIELDS = 5;
+
+	private final int mask;
+	private final int[] data;
+
+	// 次に書き込むレコードの通し番号(生産者だけが進める)
+	private final AtomicLong head = new AtomicLong();
+	// 次に読み出すレコードの通し番号(消費者だけが進める)
+	private final AtomicLong tail = new AtomicLong();
+
+	// 生産者が最後に見た読み出し位置(満杯の判定で毎回tailを読まないため)
+	private long cachedTail;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param capacity 格納できるレコード数(2のべき)
+	 */
+	MetricsRing(int capacity) {
+		if (capacity <= 0 || (capacity & (capacity - 1)) != 0)
+			throw new IllegalArgumentException("容量は2のべきでなければなりません: " + capacity);
+		mask = capacity - 1;
+		data = new int[capacity * FIELDS];
+	}
+
+	/**
+	 * 1レコードを書き込む(生産者のスレッドから呼ぶ)
+	 *
+	 * @return 書き込めたかどうか(満杯ならfalse)
+	 */
+	boolean offer(int step, int moved, int carCount, int deleted, int spawned) {
+		long h = head.get();
+		if (h - cachedTail > mask) {
+			cachedTail = tail.get();
+			if (h - cachedTail > mask) return false;
+		}
+		int i = (int) (h & mask) * FIELDS;
+		data[i]     = step;
+		data[i + 1] = moved;
+		data[i + 2] = carCount;
+		data[i + 3] = deleted;
+		data[i + 4] = spawned;
+		// レコードの書き込みが消費者から見えてから位置を進める
+		head.lazySet(h + 1);
+		return true;
+	}
+
+	/**
+	 * 読み出せるレコードを全て順に out へ渡す(消費者のスレッドから呼ぶ)
+	 *
+	 * @return 渡したレコード数
+	 */
+	int drain(MetricsSink out) throws IOException {
+		long t = tail.get();
+		long h = head.get();
+		for (long k = t; k < h; k++) {
+			int i = (int) (k & mask) * FIELDS;
+			out.record(data[i], data[i + 1], data[i + 2], data[i + 3], data[i + 4]);
+		}
+		// 読み終えたレコードの領域を生産者に返す
+		tail.lazySet(h);
+		return (int) (h - t);
+	}
+}
@@ -0,0 +1,25 @@
+package ringroad;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 数値計算の1ステップごとの計測値の出力先
+ *
+ * 数値計算のループから毎ステップ呼ばれるので、実装は書き込みをまとめて行ない、
+ * record() のたびにI/Oが発生しないようにする。
+ * 密度などの派生値は出力先で計算する(ループでは整数だけを渡す)。
+ */
+public interface MetricsSink extends Closeable {
+
+	/**
+	 * 1ステップ分の計測値を記録する
+	 *
+	 * @param step     ステップ数
+	 * @param moved    このステップで動いた車の台数
+	 * @param carCount このステップの後の車の台数
+	 * @param deleted  このステップで目的地に到着して消滅した車の台数
+	 * @param spawned  このステップで発生させた車の台数
+	 */
+	void record(int step, int moved, int carCount, int deleted, int spawned) throws IOException;
+}
@@ -0,0 +1,101 @@
+package ringroad;
+
+/**
+ * 計測値を集計する出力先
+ *
+ * 全ステップの平均速度・平均密度、直近のステップの移動平均速度、
+ * 消滅・発生した台数の合計を求める。
+ * 速度(動いた台数/車の台数)は車が1台もいないステップでは定義されないので、
+ * そのステップは速度の集計に含めない。
+ */
+public class MetricsSummary implements MetricsSink {
+
+	private final int siteCount;
+
+	// 記録したステップ数と、そのうち速度を集計したステップ数
+	private long steps;
+	private long velocitySteps;
+	private int lastStep = -1;
+
+	private double meanVelocity;
+	private double meanDensity;
+	private long totalDeleted;
+	private long totalSpawned;
+
+	// 直近の速度の循環配列と、その合計
+	private final double[] window;
+	private int windowPos;
+	private int windowSize;
+	private double windowSum;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param siteCount 全サイト数(密度の計算に使う)
+	 * @param window    移動平均をとるステップ数
+	 */
+	public MetricsSummary(int siteCount, int window) {
+		if (window < 1)
+			throw new IllegalArgumentException("window < 1: " + window);
+		this.siteCount = siteCount;
+		this.window = new double[window];
+	}
+
+	@Override
+	public void record(int step, int moved, int carCount, int deleted, int spawned) {
+		steps++;
+		lastStep = step;
+		meanDensity += (((double) carCount) / siteCount - meanDensity) / steps;
+		totalDeleted += deleted;
+		totalSpawned += spawned;
+
+		if (carCount == 0) return;
+		double v = ((double) moved) / carCount;
+		velocitySteps++;
+		meanVelocity += (v - meanVelocity) / velocitySteps;
+
+		windowSum += v - window[windowPos];
+		window[windowPos] = v;
+		windowPos = (windowPos + 1 == window.length ? 0 : windowPos + 1);
+		if (windowSize < window.length) windowSize++;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/** 記録したステップ数 */
+	public long steps() {
+		return steps;
+	}
+
+	/** 最後に記録したステップ数(記録がなければ -1) */
+	public int lastStep() {
+		return lastStep;
+	}
+
+	/** 全ステップの平均速度 */
+	public double meanVelocity() {
+		return meanVelocity;
+	}
+
+	/** 直近のステップの平均速度 */
+	public double windowVelocity() {
+		return (windowSize == 0 ? 0 : windowSum / windowSize);
+	}
+
+	/** 全ステップの平均密度 */
+	public double meanDensity() {
+		return meanDensity;
+	}
+
+	/** 消滅した車の台数の合計 */
+	public long totalDeleted() {
+		return totalDeleted;
+	}
+
+	/** 発生させた車の台数の合計 */
+	public long totalSpawned() {
+		return totalSpawned;
+	}
+}
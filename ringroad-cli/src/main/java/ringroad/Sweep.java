@@ -0,0 +1,479 @@
+package ringroad;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * GradualFieldのパラメータの組み合わせ全てについてシミュレーションを実行するクラス
+ *
+ * rc, 放射道路の本数, 車線数の配列, dY, 発生台数 のそれぞれに値のリストを与え、
+ * その直積の各組み合わせ(構成)について、レプリカを replicas 回ずつ実行する。
+ * ジョブ(構成とレプリカの組)はForkJoinPoolで並列に実行し、
+ * 基準の種 + レプリカ番号 を乱数の種とする。同じレプリカ番号のジョブは
+ * 構成が違っても同じ種を使うので、構成どうしを同じ乱数列で比べられる。
+ *
+ * 結果は1ジョブ1行の表(CSV)に、ジョブが終わるたびに追記する。
+ * 途中で止まった掃引を同じ結果ファイルで再実行すると、表にあるジョブは飛ばして残りだけを実行する。
+ * 最後に、表全体を構成ごとに集計した表(平均の渋滞までのステップ数、密度と流量など)を
+ * 「結果ファイル名_summary.csv」に書き出す。
+ *
+ * 基準の乱数の種、信号交差点にする環状道路の本数と制御方式(setSignals)、DynamicRouterの間隔は
+ * 全てのジョブで共通なので、結果の表の1行目に「# seed=0, signal=0, controller=-, router=0」の
+ * 形式でまとめて記録する。これらが違う設定で同じ結果ファイルに再実行すると、
+ * 別の条件の行が混ざらないよう例外を投げる。制御方式などを比べるときは、別の結果ファイルに掃引する。
+ */
+public class Sweep {
+
+	private static final String BR = System.getProperty("line.separator");
+
+	// 結果の表の1行目(全てのジョブで共通の設定)の先頭
+	private static final String OPTIONS_PREFIX = "# ";
+	// 結果の表の見出し
+	private static final String HEADER = "rc, x, ys, dy, pn, replica, seed, end, steps, "
+			+ "finalDensity, meanFlow, meanVelocity, meanDensity";
+	// 結果の表の列の区切り
+	private static final String SEP = ", ";
+	// 結果の表の列の数
+	private static final int COLUMNS = 13;
+	// 構成を識別する列の数 (rc, x, ys, dy, pn)
+	private static final int CONFIG_COLUMNS = 5;
+
+	// 集計した表の見出し
+	private static final String SUMMARY_HEADER = "rc, x, ys, dy, pn, replicas, jammed, "
+			+ "meanSteps, meanFlow, meanDensity, meanVelocity";
+
+	private final int[] rcs;
+	private final int[] xs;
+	private final int[][] lanes;
+	private final int[] dys;
+	private final double[] pns;
+	private final int replicas;
+
+	// 基準の乱数の種
+	private long seed;
+
+	// 同時に実行するジョブ数の上限
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	// 信号交差点にする内側の環状道路の本数と、その制御方式
+	private int signalRings;
+	private SignalController controller;
+
+	// DynamicRouterのコストを計算し直す間隔(0なら幾何的な固定経路)
+	private int routerInterval;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param rcs      中心半径の値のリスト
+	 * @param xs       放射道路の本数の値のリスト
+	 * @param lanes    環状道路の車線数の配列のリスト
+	 * @param dys      放射道路の1区間の長さの値のリスト
+	 * @param pns      1ステップあたりの発生台数の値のリスト
+	 * @param replicas 構成ごとのレプリカ数
+	 */
+	public Sweep(int[] rcs, int[] xs, int[][] lanes, int[] dys, double[] pns, int replicas) {
+		if (replicas < 1)
+			throw new IllegalArgumentException("replicas < 1: " + replicas);
+		this.rcs = rcs;
+		this.xs = xs;
+		this.lanes = lanes;
+		this.dys = dys;
+		this.pns = pns;
+		this.replicas = replicas;
+	}
+
+	/**
+	 * 基準の乱数の種を設定する(レプリカ番号を足したものが各ジョブの種になる)
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * 同時に実行するジョブ数の上限を設定する(デフォルトは全てのコア数)
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * 内側の環状道路を信号交差点にする(デフォルトは全てラウンドアバウト)
+	 *
+	 * @param rings      信号交差点にする内側の環状道路の本数
+	 * @param controller 信号の制御方式
+	 */
+	public void setSignals(int rings, SignalController controller) {
+		if (rings < 0)
+			throw new IllegalArgumentException("rings < 0: " + rings);
+		this.signalRings = rings;
+		this.controller = controller;
+	}
+
+	/**
+	 * 混雑に応じて経路を決めるDynamicRouterを使う(デフォルトは幾何的な固定経路)
+	 *
+	 * @param interval コストを計算し直す間隔のステップ数(0なら使わない)
+	 */
+	public void setRouter(int interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("interval < 0: " + interval);
+		this.routerInterval = interval;
+	}
+
+	/**
+	 * 掃引を実行する
+	 *
+	 * @param results 結果の表のファイル(既にあれば、表にないジョブだけを実行する)
+	 * @return 今回実行したジョブ数
+	 */
+	public int run(File results) throws IOException {
+		Set<String> done = resume(results, options());
+		boolean fresh = !results.exists() || results.length() == 0;
+
+		int count;
+		try (final Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(results, true), "UTF-8"))) {
+			if (fresh) {
+				out.write(options() + BR);
+				out.write(HEADER + BR);
+				out.flush();
+			}
+
+			List<Callable<Void>> jobs = new ArrayList<Callable<Void>>();
+			for (final String config : configs()) {
+				for (int i = 0; i < replicas; i++) {
+					final int replica = i;
+					if (done.contains(config + SEP + replica)) continue;
+					jobs.add(new Callable<Void>() {
+						@Override
+						public Void call() throws IOException {
+							String line = runJob(config, replica);
+							synchronized (out) {
+								out.write(line);
+								out.flush();
+							}
+							return null;
+						}
+					});
+				}
+			}
+			count = jobs.size();
+
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				for (Future<Void> f : pool.invokeAll(jobs)) {
+					f.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("掃引が中断されました", e);
+			} catch (ExecutionException e) {
+				throw new IOException("ジョブの実行に失敗しました", e.getCause());
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		summarize(results, summaryFile(results));
+		return count;
+	}
+
+	// 全てのジョブで共通の設定を、結果の表の1行目の形式で返す
+	// (信号交差点を使わない場合、制御方式は結果に影響しないので "-" とする)
+	private String options() {
+		return OPTIONS_PREFIX + "seed=" + seed + SEP + "signal=" + signalRings
+				+ SEP + "controller=" + (signalRings == 0 || controller == null ? "-" : controller)
+				+ SEP + "router=" + routerInterval;
+	}
+
+	// 全ての構成を、結果の表の最初の列の形式(rc, x, ys, dy, pn)で列挙する
+	private List<String> configs() {
+		List<String> list = new ArrayList<String>();
+		for (int rc : rcs) {
+			for (int x : xs) {
+				for (int[] ys : lanes) {
+					for (int dy : dys) {
+						for (double pn : pns) {
+							list.add(rc + SEP + x + SEP + lanesToString(ys) + SEP + dy + SEP + pn);
+						}
+					}
+				}
+			}
+		}
+		return list;
+	}
+
+	// 1つのジョブを実行し、結果の表の1行を返す
+	private String runJob(String config, int replica) throws IOException {
+		String[] c = config.split(SEP);
+		long jobSeed = seed + replica;
+		int[] ys = parseLanes(c[2]);
+		Field field = new GradualField(Integer.parseInt(c[0]), Integer.parseInt(c[1]), ys,
+				Integer.parseInt(c[3]), IntersectionType.inner(ys.length,
+						Math.min(signalRings, ys.length), IntersectionType.SIGNALIZED));
+		if (controller != null) field.setSignalController(controller);
+		if (routerInterval > 0) {
+			DynamicRouter router = new DynamicRouter(field);
+			router.setInterval(routerInterval);
+			field.setRouter(router);
+		}
+		field.setSpawnProbability(Double.parseDouble(c[4]));
+		field.setSeed(jobSeed);
+
+		MetricsSummary summary = new MetricsSummary(field.siteCount, 100);
+		SimulationResult r = Calculation.run(field, summary);
+		return config + SEP + replica + SEP + jobSeed + SEP + r.end + SEP + r.steps
+				+ SEP + r.finalDensity + SEP + r.meanFlow
+				+ SEP + summary.meanVelocity() + SEP + summary.meanDensity() + BR;
+	}
+
+	/**
+	 * 既存の結果の表から、実行済みのジョブ(rc, x, ys, dy, pn, replica)の集合を読み出す。
+	 * 表の共通の設定が options と違えば例外を投げる。書きかけの最後の行があれば切り詰める。
+	 */
+	private static Set<String> resume(File results, String options) throws IOException {
+		Set<String> done = new HashSet<String>();
+		if (!results.exists() || results.length() == 0) return done;
+
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(results), "UTF-8"))) {
+			String line = in.readLine();
+			if (line == null || !line.startsWith(OPTIONS_PREFIX))
+				throw new IOException("結果の表の形式が異なります: " + results);
+			if (!line.equals(options))
+				throw new IOException("結果の表と掃引の設定が異なります: " + line.substring(OPTIONS_PREFIX.length())
+						+ " (今回は " + options.substring(OPTIONS_PREFIX.length()) + ")");
+		}
+
+		// 最後の改行より後ろ(書きかけの行)を切り詰める
+		try (RandomAccessFile raf = new RandomAccessFile(results, "rw")) {
+			long end = raf.length();
+			while (end > 0) {
+				raf.seek(end - 1);
+				if (raf.read() == '\n') break;
+				end--;
+			}
+			raf.setLength(end);
+		}
+
+		for (String[] row : readRows(results)) {
+			StringBuilder key = new StringBuilder(row[0]);
+			for (int i = 1; i <= CONFIG_COLUMNS; i++) {
+				key.append(SEP).append(row[i]);
+			}
+			done.add(key.toString());
+		}
+		return done;
+	}
+
+	// 結果の表の全ての行を、列に分けて読み出す
+	private static List<String[]> readRows(File file) throws IOException {
+		List<String[]> rows = new ArrayList<String[]>();
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), "UTF-8"))) {
+			String line = in.readLine();
+			if (line == null) return rows;
+			if (!line.startsWith(OPTIONS_PREFIX) || !HEADER.equals(line = in.readLine()))
+				throw new IOException("結果の表の形式が異なります: " + file);
+			while ((line = in.readLine()) != null) {
+				String[] row = line.split(SEP);
+				if (row.length == COLUMNS) rows.add(row);
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * 結果の表を構成ごとに集計して書き出す
+	 */
+	private void summarize(File results, File summary) throws IOException {
+		// 構成ごとの {レプリカ数, 渋滞した数, ステップ数, 流量, 密度, 速度} の合計
+		Map<String, double[]> sums = new HashMap<String, double[]>();
+		for (String[] row : readRows(results)) {
+			StringBuilder key = new StringBuilder(row[0]);
+			for (int i = 1; i < CONFIG_COLUMNS; i++) {
+				key.append(SEP).append(row[i]);
+			}
+			double[] s = sums.get(key.toString());
+			if (s == null) {
+				s = new double[6];
+				sums.put(key.toString(), s);
+			}
+			s[0]++;
+			if (!row[7].equals(SimulationResult.End.STEP_LIMIT.name())) s[1]++;
+			s[2] += Integer.parseInt(row[8]);
+			s[3] += Double.parseDouble(row[10]);
+			s[4] += Double.parseDouble(row[12]);
+			s[5] += Double.parseDouble(row[11]);
+		}
+
+		try (Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(summary), "UTF-8"))) {
+			out.write(SUMMARY_HEADER + BR);
+			for (String config : configs()) {
+				double[] s = sums.get(config);
+				if (s == null) continue;
+				double n = s[0];
+				out.write(config + SEP + (int) n + SEP + (int) s[1] + SEP + s[2] / n
+						+ SEP + s[3] / n + SEP + s[4] / n + SEP + s[5] / n + BR);
+			}
+		}
+	}
+
+	// 結果の表のファイル名から、集計した表のファイル名を作る
+	private static File summaryFile(File results) {
+		String name = results.getName().replaceFirst("\\.[^.]*$", "");
+		return new File(results.getAbsoluteFile().getParentFile(), name + "_summary.csv");
+	}
+
+	// 車線数の配列を "3-2-1-1" の形式にする
+	private static String lanesToString(int[] ys) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < ys.length; i++) {
+			if (i > 0) sb.append('-');
+			sb.append(ys[i]);
+		}
+		return sb.toString();
+	}
+
+	// "3-2-1-1" の形式の車線数の配列を読む
+	static int[] parseLanes(String s) {
+		String[] t = s.split("-");
+		int[] ys = new int[t.length];
+		for (int i = 0; i < t.length; i++) {
+			ys[i] = Integer.parseInt(t[i].trim());
+		}
+		return ys;
+	}
+
+	// "10,20,30" または "10:30:10"(開始:終了:間隔) の形式の値のリストを読む
+	static double[] parseValues(String s) {
+		if (s.contains(":")) {
+			String[] t = s.split(":");
+			double from = Double.parseDouble(t[0]);
+			double to = Double.parseDouble(t[1]);
+			double step = (t.length > 2 ? Double.parseDouble(t[2]) : 1);
+			if (step <= 0)
+				throw new IllegalArgumentException("間隔が正ではありません: " + s);
+			List<Double> list = new ArrayList<Double>();
+			for (int i = 0; from + i * step <= to + 1e-9; i++) {
+				// 間隔の足し算で出る端数を丸める
+				list.add(Math.round((from + i * step) * 1e9) / 1e9);
+			}
+			double[] v = new double[list.size()];
+			for (int i = 0; i < v.length; i++) {
+				v[i] = list.get(i);
+			}
+			return v;
+		}
+		String[] t = s.split(",");
+		double[] v = new double[t.length];
+		for (int i = 0; i < t.length; i++) {
+			v[i] = Double.parseDouble(t[i].trim());
+		}
+		return v;
+	}
+
+	// 整数の値のリストを読む
+	private static int[] parseInts(String s) {
+		double[] d = parseValues(s);
+		int[] v = new int[d.length];
+		for (int i = 0; i < d.length; i++) {
+			v[i] = (int) Math.round(d[i]);
+		}
+		return v;
+	}
+
+	// "fixed:青", "actuated:最小の青:最大の青", "pressure:最小の青" の形式の信号の制御方式を読む
+	static SignalController parseController(String s) {
+		String[] t = s.split(":");
+		if (t[0].equals("fixed") && t.length == 2)
+			return new FixedTimeController(Integer.parseInt(t[1]));
+		if (t[0].equals("actuated") && t.length == 3)
+			return new ActuatedController(Integer.parseInt(t[1]), Integer.parseInt(t[2]));
+		if (t[0].equals("pressure") && t.length == 2)
+			return new MaxPressureController(Integer.parseInt(t[1]));
+		throw new IllegalArgumentException("不明な信号の制御方式です: " + s);
+	}
+
+	/**
+	 * コマンドラインから掃引を実行する
+	 *
+	 * 引数は 名前=値のリスト の形式で、省略した名前はデフォルト値を使う。
+	 *   rc=10        中心半径
+	 *   x=10         放射道路の本数
+	 *   ys=3-2-1-1   環状道路の車線数の配列(複数なら "/" で区切る 例: 3-2-1-1/1-1-1-1)
+	 *   dy=5         放射道路の1区間の長さ
+	 *   pn=5.0       1ステップあたりの発生台数
+	 *   n=10         構成ごとのレプリカ数
+	 *   seed=0       基準の乱数の種
+	 *   signal=0     信号交差点にする内側の環状道路の本数
+	 *   controller=fixed:10 信号の制御方式
+	 *                (fixed:青 / actuated:最小の青:最大の青 / pressure:最小の青)
+	 *   router=0     DynamicRouterのコストを計算し直す間隔(0なら幾何的な固定経路)
+	 *   threads=     同時に実行するジョブ数(省略時は全てのコア数)
+	 *   out=sweep.csv 結果の表のファイル
+	 * 値のリストは "1,2,3" または "開始:終了:間隔" (例: pn=1:5:0.5) で指定する。
+	 */
+	public static void main(String[] args) throws IOException {
+		Map<String, String> opt = new HashMap<String, String>();
+		opt.put("rc", "10");
+		opt.put("x", "10");
+		opt.put("ys", "3-2-1-1");
+		opt.put("dy", "5");
+		opt.put("pn", "5.0");
+		opt.put("n", "10");
+		opt.put("seed", "0");
+		opt.put("signal", "0");
+		opt.put("controller", "fixed:10");
+		opt.put("router", "0");
+		opt.put("out", "sweep.csv");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0 || !opt.containsKey(arg.substring(0, eq)) && !arg.startsWith("threads=")) {
+				System.err.println("usage: Sweep [rc=..] [x=..] [ys=3-2-1-1/1-1-1-1] [dy=..] [pn=1:5:0.5]"
+						+ " [n=..] [seed=..] [signal=..] [controller=pressure:2] [router=..] [threads=..] [out=sweep.csv]");
+				System.exit(1);
+			}
+			opt.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+
+		String[] profiles = opt.get("ys").split("/");
+		int[][] lanes = new int[profiles.length][];
+		for (int i = 0; i < profiles.length; i++) {
+			lanes[i] = parseLanes(profiles[i]);
+		}
+		Sweep sweep = new Sweep(parseInts(opt.get("rc")), parseInts(opt.get("x")), lanes,
+				parseInts(opt.get("dy")), parseValues(opt.get("pn")), Integer.parseInt(opt.get("n")));
+		sweep.setSeed(Long.parseLong(opt.get("seed")));
+		sweep.setSignals(Integer.parseInt(opt.get("signal")), parseController(opt.get("controller")));
+		sweep.setRouter(Integer.parseInt(opt.get("router")));
+		if (opt.containsKey("threads"))
+			sweep.setParallelism(Integer.parseInt(opt.get("threads")));
+
+		File out = new File(opt.get("out"));
+		int n = sweep.run(out);
+		System.out.println(n + " ジョブを実行しました: " + out + ", " + summaryFile(out));
+	}
+}
@@ -0,0 +1,42 @@
+package ringroad;
+
+/**
+ * 感応式の信号制御
+ *
+ * 最小の青のステップ数が過ぎた後、青の流入路に待っている車がいなくなり、
+ * 赤の流入路に車が待っていれば切り替える。
+ * 青の流入路に車が待ち続けていても、最大の青のステップ数で切り替える。
+ */
+public class ActuatedController implements SignalController {
+
+	private final int minGreen;
+	private final int maxGreen;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param minGreen 最小の青のステップ数
+	 * @param maxGreen 最大の青のステップ数
+	 */
+	public ActuatedController(int minGreen, int maxGreen) {
+		if (minGreen < 1 || maxGreen < minGreen)
+			throw new IllegalArgumentException("青のステップ数が不正です: " + minGreen + ", " + maxGreen);
+		this.minGreen = minGreen;
+		this.maxGreen = maxGreen;
+	}
+
+	@Override
+	public int nextPhase(SignalizedIntersection is) {
+		int phase = is.phase();
+		int elapsed = is.elapsed();
+		if (elapsed < minGreen) return phase;
+		if (elapsed >= maxGreen) return 1 - phase;
+		if (is.queue(phase) == 0 && is.queue(1 - phase) > 0) return 1 - phase;
+		return phase;
+	}
+
+	@Override
+	public String toString() {
+		return "actuated:" + minGreen + ":" + maxGreen;
+	}
+}
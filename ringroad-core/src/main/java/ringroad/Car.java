@@ -0,0 +1,326 @@
+package ringroad;
+
+/**
+ * 車の発生、消滅、経路情報を管理するクラス
+ *
+ */
+public class Car {
+
+	/**
+	 * この車が属するField
+	 */
+	private final Field field;
+
+	// int[4] の位置情報の配列のインデックスには次の定数を用いる
+	private static final int X = 0;
+	private static final int Y = 1;
+	private static final int ISEC = 2;
+	private static final int STEP = 3;
+
+	/**
+	 * 出発地の位置(x, y, isec, step)
+	 */
+	private int[] origin;
+
+	/**
+	 * 目的地の位置(x, y, isec, step)
+	 */
+	private int[] destination;
+
+	/**
+	 * 現在位置(x, y, isec, step)
+	 */
+	private int[] current;
+
+	/**
+	 * 経路情報(Routeクラスの形式でエンコードしたもの)
+	 * 各交差点で抜ける交差点番号は、routeStepからその都度計算する。
+	 */
+	private long route;
+
+	/**
+	 * 出発して1番目に通る交差点の座標
+	 */
+	private int startX, startY;
+
+	/**
+	 * 経路の現在のステップ
+	 */
+	private int routeStep;
+
+	/**
+	 * コンストラクタ
+	 * 出発地を指定して車を作成する。
+	 * 目的地はランダムに決定される。
+	 *
+	 * @param field この車が属するField
+	 * @param x    出発地のx座標
+	 * @param y    出発地のy座標
+	 * @param isec 出発地の交差点番号
+	 * @param step 出発地の道路サイトのステップ数
+	 */
+	public Car(Field field, int x, int y, int isec, int step) {
+		this.field = field;
+		// 出発地を格納する
+		origin = new int[] {x, y, isec, step};
+		// 出発時は出発地にいる
+		current = new int[] {x, y, isec, step};
+
+		// 目的地を決定する
+		setDestination();
+		// 経路を決定する
+		setRoute();
+
+		field.carCount++;
+	}
+
+	/**
+	 * コンストラクタ
+	 * チェックポイントから読み込んだ状態の車を作成する。
+	 * field.carCount は変更しない。
+	 *
+	 * @param current 現在位置(x, y, isec, step)
+	 */
+	Car(Field field, int[] origin, int[] destination, int[] current,
+			long route, int startX, int startY, int routeStep) {
+		this.field = field;
+		this.origin = origin;
+		this.destination = destination;
+		this.current = current;
+		this.route = route;
+		this.startX = startX;
+		this.startY = startY;
+		this.routeStep = routeStep;
+	}
+
+	/**
+	 * 目的地をランダムに決定する。
+	 */
+	private void setDestination() {
+		FastRandom random = field.random();
+
+		boolean flag = true;
+		int rx, ry, ri, rs;
+		do {
+			rx = random.nextInt(field.numX);
+			ry = random.nextInt(field.numY);
+			ri = random.nextInt(4);
+			int ni = field.lengthAt(rx, ry, ri) + 1;
+			rs = random.nextInt(ni);
+
+			// 出発地と完全に一致した場合は抽選し直し
+			if (origin[X] == rx &&
+				origin[Y] == ry &&
+				origin[ISEC] == ri &&
+				origin[STEP] == rs) continue;
+			// 目的地を保存する
+			destination = new int[] {rx, ry, ri, rs};
+			flag = false;
+		} while (flag);
+	}
+
+	/**
+	 * 出発地から目的地までの経路を決定し、経路情報を
+	 * 変数 route に格納する
+	 */
+	private void setRoute() {
+		// 特例: 同じ道路サイト内の場合(交差点サイトを全く通らない場合)
+		if (origin[X] == destination[X] &&
+			origin[Y] == destination[Y] &&
+			origin[ISEC] == destination[ISEC] &&
+			origin[STEP] > 0 && origin[STEP] < destination[STEP]) {
+			route = Route.SAME_ROAD;
+			startX = startY = -1;
+			return;
+		}
+
+		// 出発して1番目に通る交差点の座標
+		if (origin[STEP] == 0) {
+			setRouteFrom(origin[X], origin[Y]);
+		} else {
+			Intersection temp = field.getIntersection(origin[X], origin[Y])
+					.neighbor(origin[ISEC]);
+			setRouteFrom(temp.thisX, temp.thisY);
+		}
+	}
+
+	/**
+	 * 交差点(x, y)から目的地までの経路を決定する。
+	 * 経路探索器がある場合は、交差点(x, y)で抜ける交差点番号だけを
+	 * 長さ1の経路として格納し、次の交差点の経路は交差点を抜けたときに決める。
+	 */
+	private void setRouteFrom(int x, int y) {
+		startX = x;
+		startY = y;
+		routeStep = 0;
+
+		DynamicRouter router = field.getRouter();
+		if (router != null) {
+			route = Route.of(0, 0, 0, router.next(x, y, destination));
+			return;
+		}
+
+		// 目的地に着く前に通る最後の交差点は、交差点サイト・道路サイト問わず
+		// 目的地の座標の交差点。そこを目的地の交差点番号で抜ける。
+		route = Route.compute(field.numX, startX, startY,
+				destination[X], destination[Y], destination[ISEC]);
+
+		int last = Route.length(route) - 1;
+		int lastX = Route.x(route, startX, last, field.numX);
+		int lastY = Route.y(route, startY, last);
+		if (lastX != destination[X] || lastY != destination[Y])
+			throw new RuntimeException("ルート生成に失敗しました："
+					+ lastX + "!=" + destination[X]
+					+ " or " + lastY + "!=" + destination[Y]);
+	}
+
+	/**
+	 * 車を1サイト動かした時に呼び出す。
+	 *
+	 * @param newX    移動後のX座標
+	 * @param newY    移動後のY座標
+	 * @param newIsec 移動後のIsec値
+	 * @param newStep 移動後のStep値
+	 */
+	public void move(int newX, int newY, int newIsec, int newStep) {
+		if (current[STEP] == 0 && newStep != 0) {
+			// 交差点を抜けたとき
+			routeStep++;
+			// 経路探索器がある場合(または経路探索器が外されて経路が尽きた場合)は、
+			// 目的地がこの道路の先にない限り、次の交差点からの経路を決め直す
+			if ((field.getRouter() != null || routeStep >= Route.length(route))
+					&& !(newX == destination[X] && newY == destination[Y]
+						&& newIsec == destination[ISEC] && newStep <= destination[STEP])) {
+				Intersection temp = field.getIntersection(newX, newY).neighbor(newIsec);
+				setRouteFrom(temp.thisX, temp.thisY);
+			}
+
+		} else if (current[STEP] != 0 && newStep == 0) {
+			// 交差点に入ったとき
+			if (routeStep < Route.length(route) &&
+				(Route.x(route, startX, routeStep, field.numX) != newX ||
+				 Route.y(route, startY, routeStep) != newY)) {
+				throw new RuntimeException("車が経路通りの道順を進んでいません！");
+			}
+		}
+
+		current[X]    = newX;
+		current[Y]    = newY;
+		current[ISEC] = newIsec;
+		current[STEP] = newStep;
+
+		// 目的地に到着したら、その位置の交差点に消滅させてもらうよう登録する
+		if (isDespawn())
+			field.getIntersection(newX, newY).arrive(this);
+	}
+
+	/**
+	 * 次の交差点で抜ける交差点番号を返す
+	 */
+	public int outIsec() {
+		return Route.outIsec(route, routeStep);
+	}
+
+	/**
+	 * 経路情報を配列に展開して返す（デバッグ用）
+	 * route[i][X]は i番目に通るの交差点のX座標、
+	 * route[i][Y]は i番目に通るの交差点のY座標、
+	 * route[i][ISEC]は i番目に通る交差点を抜ける交差点番号を格納する。
+	 * 最後の要素にはダミー値 -1 が入る。
+	 */
+	public int[][] routeTable() {
+		int n = Route.length(route);
+		int[][] table = new int[n + 1][3];
+		for (int i = 0; i < n; i++) {
+			table[i][X] = Route.x(route, startX, i, field.numX);
+			table[i][Y] = Route.y(route, startY, i);
+			table[i][ISEC] = Route.outIsec(route, i);
+		}
+		table[n][X] = -1;
+		table[n][Y] = -1;
+		table[n][ISEC] = -1;
+		return table;
+	}
+
+	/**
+	 * 経路情報をコンソールに出力する（デバッグ用）
+	 */
+	public void routeInfo() {
+		int[][] table = routeTable();
+		for (int i = 0; ; i++) {
+			if (table[i][0] == -1) break;
+			System.out.print("(" + table[i][0] + "," + table[i][1] + ")");
+		}
+		System.out.println();
+	}
+
+	/**
+	 * 目的地の座標を返す
+	 */
+	protected int[] getDestination() {
+		return destination;
+	}
+
+	/**
+	 * 出発地の座標を返す
+	 */
+	int[] getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * 現在位置の座標を返す
+	 */
+	int[] getCurrent() {
+		return current;
+	}
+
+	/**
+	 * 経路の現在のステップを返す
+	 */
+	int getRouteStep() {
+		return routeStep;
+	}
+
+	/**
+	 * 経路情報(Routeクラスの形式)を返す
+	 */
+	long getRoute() {
+		return route;
+	}
+
+	/**
+	 * 出発して1番目に通る交差点のX座標を返す
+	 */
+	int getStartX() {
+		return startX;
+	}
+
+	/**
+	 * 出発して1番目に通る交差点のY座標を返す
+	 */
+	int getStartY() {
+		return startY;
+	}
+
+	/**
+	 * この車が消滅するかどうかを判定する
+	 */
+	public boolean isDespawn() {
+		if (current[X]    == destination[X] &&
+			current[Y]    == destination[Y] &&
+			current[ISEC] == destination[ISEC] &&
+			current[STEP] == destination[STEP])
+			return true;
+		else
+			return false;
+	}
+
+	/**
+	 * 車を消滅させる直前に呼び出される
+	 * (車の台数はField.update()が消滅させた台数の合計から減らす。
+	 * 車の数を一定に保つ場合も、消滅させた台数分をField.update()がまとめて発生させる)
+	 */
+	public void despawning() {
+	}
+}
@@ -0,0 +1,248 @@
+package ringroad;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Fieldの状態をファイルに保存し、そこから復元するためのメソッド群
+ *
+ * 保存するのはネットワークのパラメータ、全サイトの車(道路サイトはキューの先頭から順に)、
+ * 各車の出発地・目的地・経路、発生台数、密度を一定に保つかどうか、乱数生成器の内部状態。
+ * 復元したFieldは保存したFieldと全く同じ計算を続ける。
+ * 同じチェックポイントから別々の計算を始めるには、復元後に setSeed() で種を変える。
+ *
+ * ファイル形式(リトルエンディアン):
+ *   ヘッダ: MAGIC, VERSION, 種類(0=Field, 1=GradualField), rc, numX, numY, dY,
+ *           各環状道路の車線数(numY個), 発生台数(double), 密度を一定に保つか(int, 0/1),
+ *           乱数の内部状態(long×2), 車の台数
+ *   本体  : 交差点(x, y)の順、交差点番号の順に、
+ *           交差点サイトの車の台数(byte)とその台数分の車、
+ *           道路サイトごとの車の台数(byte)とその台数分の車
+ *   車    : 出発地(int×4), 目的地(int×4), 経路のステップ(int), 経路(long),
+ *           出発して1番目に通る交差点の座標(int×2)
+ * 書き込みはバッファにまとめてFileChannelで行ない、読み込みはファイルをメモリにマップして行なう。
+ * 交差点は全てRoundaboutでなければならない。
+ * 保存は同じディレクトリの一時ファイルに書いてから置き換えるので、
+ * 途中で失敗しても既存のファイルは壊れない。
+ */
+public final class Checkpoint {
+
+	/** ファイルの先頭の識別子 ("RRC1") */
+	public static final int MAGIC = 0x52524331;
+
+	private static final int VERSION = 1;
+
+	// Fieldの種類
+	private static final int KIND_FIELD = 0;
+	private static final int KIND_GRADUAL = 1;
+
+	// 車1台分のバイト数
+	private static final int CAR_BYTES = 4 * 8 + 4 + 8 + 4 * 2;
+
+	private Checkpoint() {
+	}
+
+	/**
+	 * Fieldの状態をファイルに保存する
+	 *
+	 * @param field 保存するField
+	 * @param file  保存先のファイル
+	 */
+	public static void save(Field field, File file) throws IOException {
+		int kind;
+		if (field.getClass() == Field.class)
+			kind = KIND_FIELD;
+		else if (field.getClass() == GradualField.class)
+			kind = KIND_GRADUAL;
+		else
+			throw new IllegalArgumentException("保存できないFieldです: " + field.getClass().getName());
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				if (!(field.getIntersection(x, y) instanceof Roundabout))
+					throw new IllegalArgumentException("Roundabout以外の交差点は保存できません");
+			}
+		}
+
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			write(field, kind, tmp);
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	// Fieldの状態をファイルに書き込む
+	private static void write(Field field, int kind, File file) throws IOException {
+		try (FileChannel ch = new FileOutputStream(file).getChannel()) {
+			Output out = new Output(ch);
+			out.ensure(4 * 9 + 8 * 3 + 4 * field.numY);
+			ByteBuffer buf = out.buf;
+			buf.putInt(MAGIC).putInt(VERSION).putInt(kind);
+			buf.putInt(field.rc).putInt(field.numX).putInt(field.numY).putInt(field.dY);
+			for (int y = 0; y < field.numY; y++) {
+				buf.putInt(field.getIntersection(0, y).roads[0].lanes());
+			}
+			buf.putDouble(field.getSpawnProbability());
+			buf.putInt(field.isConstantDensity() ? 1 : 0);
+			long[] state = field.random().getState();
+			buf.putLong(state[0]).putLong(state[1]);
+			buf.putInt(field.carCount);
+
+			for (int x = 0; x < field.numX; x++) {
+				for (int y = 0; y < field.numY; y++) {
+					Roundabout ra = (Roundabout) field.getIntersection(x, y);
+					for (int isec = 0; isec < 4; isec++) {
+						RoadSite slot = ra.siteAt(isec);
+						out.ensure(1);
+						buf.put((byte) slot.size());
+						for (int j = 0; j < slot.size(); j++) {
+							out.putCar(slot.get(j));
+						}
+						Car car;
+
+						Road road = ra.roads[isec];
+						for (int step = 1; step <= ra.lengthAt(isec); step++) {
+							out.ensure(1);
+							if (road instanceof SingleRoad) {
+								car = ((SingleRoad) road).road[step - 1];
+								buf.put((byte) (car == null ? 0 : 1));
+								if (car != null) out.putCar(car);
+							} else {
+								RoadSite site = ((MultipleRoad) road).siteAt(step);
+								buf.put((byte) site.size());
+								for (int j = 0; j < site.size(); j++) {
+									out.putCar(site.get(j));
+								}
+							}
+						}
+					}
+				}
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * ファイルからFieldを復元する
+	 *
+	 * @param file 読み込むファイル
+	 * @return 復元したField
+	 */
+	public static Field load(File file) throws IOException {
+		try (FileChannel ch = new FileInputStream(file).getChannel()) {
+			ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			buf.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buf.remaining() < 12 || buf.getInt() != MAGIC)
+				throw new IOException("チェックポイントのファイルではありません: " + file);
+			if (buf.getInt() != VERSION)
+				throw new IOException("チェックポイントのバージョンが異なります: " + file);
+			int kind = buf.getInt();
+			int rc = buf.getInt();
+			int numX = buf.getInt();
+			int numY = buf.getInt();
+			int dY = buf.getInt();
+			int[] lanes = new int[numY];
+			for (int y = 0; y < numY; y++) {
+				lanes[y] = buf.getInt();
+			}
+
+			Field field;
+			if (kind == KIND_FIELD)
+				field = new Field(rc, numX, numY, dY);
+			else if (kind == KIND_GRADUAL)
+				field = new GradualField(rc, numX, lanes, dY);
+			else
+				throw new IOException("不明なFieldの種類です: " + kind);
+
+			field.setSpawnProbability(buf.getDouble());
+			field.setConstantDensity(buf.getInt() != 0);
+			long s0 = buf.getLong();
+			long s1 = buf.getLong();
+			field.random().setState(s0, s1);
+			int carCount = buf.getInt();
+
+			int placed = 0;
+			for (int x = 0; x < numX; x++) {
+				for (int y = 0; y < numY; y++) {
+					Roundabout is = (Roundabout) field.getIntersection(x, y);
+					for (int isec = 0; isec < 4; isec++) {
+						int m = buf.get();
+						for (int j = 0; j < m; j++) {
+							is.place(readCar(buf, field, x, y, isec, 0), isec, 0);
+							placed++;
+						}
+						for (int step = 1; step <= is.lengthAt(isec); step++) {
+							int n = buf.get();
+							for (int j = 0; j < n; j++) {
+								is.place(readCar(buf, field, x, y, isec, step), isec, step);
+								placed++;
+							}
+						}
+					}
+				}
+			}
+			if (placed != carCount)
+				throw new IOException("車の台数が一致しません: " + placed + " != " + carCount);
+			field.carCount = carCount;
+			return field;
+		}
+	}
+
+	// 位置(x, y, isec, step)にいる車を1台読み込む
+	private static Car readCar(ByteBuffer buf, Field field, int x, int y, int isec, int step) {
+		int[] origin = {buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt()};
+		int[] destination = {buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt()};
+		int routeStep = buf.getInt();
+		long route = buf.getLong();
+		int startX = buf.getInt();
+		int startY = buf.getInt();
+		return new Car(field, origin, destination, new int[] {x, y, isec, step},
+				route, startX, startY, routeStep);
+	}
+
+	/**
+	 * バッファにまとめてFileChannelに書き込む出力
+	 */
+	private static class Output {
+		final FileChannel ch;
+		final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+		Output(FileChannel ch) {
+			this.ch = ch;
+		}
+
+		// nバイト書き込める空きを確保する
+		void ensure(int n) throws IOException {
+			if (buf.remaining() < n) flush();
+		}
+
+		void putCar(Car car) throws IOException {
+			ensure(CAR_BYTES);
+			int[] o = car.getOrigin();
+			int[] d = car.getDestination();
+			buf.putInt(o[0]).putInt(o[1]).putInt(o[2]).putInt(o[3]);
+			buf.putInt(d[0]).putInt(d[1]).putInt(d[2]).putInt(d[3]);
+			buf.putInt(car.getRouteStep());
+			buf.putLong(car.getRoute());
+			buf.putInt(car.getStartX()).putInt(car.getStartY());
+		}
+
+		void flush() throws IOException {
+			buf.flip();
+			while (buf.hasRemaining()) {
+				ch.write(buf);
+			}
+			buf.clear();
+		}
+	}
+}
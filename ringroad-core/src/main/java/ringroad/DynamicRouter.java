@@ -0,0 +1,332 @@
+package ringroad;
+
+import java.util.Arrays;
+
+/**
+ * 道路の混雑に応じて経路を決める経路探索器
+ *
+ * 交差点をノード、交差点から伸びる道路を有向辺とするグラフについて、
+ * 目的地の交差点ごとに最短経路木(各交差点から目的地へ向かうときに抜ける交差点番号)を持つ。
+ * 辺のコストは
+ *   道路の長さ + weight × (道路にいる台数 + その道路へ抜ける交差点サイトにいる台数) / 車線数
+ * とし、interval ステップごとにその時点の台数から計算し直す。
+ * コストが変わった辺があっても木を全て作り直さず、影響を受ける交差点だけを直す。
+ * (コストが上がった木の辺より上流の部分木を切り離し、コストが下がった辺とあわせて
+ * そこからラベル修正法で距離を張り直す。木の半分以上を切り離す場合はその目的地だけ作り直す)
+ * 元のコストとの差が 1/8 以下の小さな変化は無視し、木を直す回数を抑える。
+ *
+ * 車は交差点を抜けるたびに、次の交差点で抜ける交差点番号を木から引くので、
+ * 車の発生や移動のときの経路の決定は配列の参照だけで済む。
+ * 木の更新はField.update()の最初に1スレッドで行ない、各フェーズの間は変更しないので、
+ * 複数スレッドで更新しても結果は1スレッドの場合と変わらない。
+ * 距離の表は (交差点の数)^2 の大きさになる。経路探索器の状態はチェックポイントには保存されない。
+ */
+public class DynamicRouter {
+
+	// 到達できない距離
+	private static final int INF = Integer.MAX_VALUE / 2;
+
+	// 辺のコストの変化が元のコストの 1/TOLERANCE 以下なら無視する
+	private static final int TOLERANCE = 8;
+
+	private final Field field;
+	private final int numY;
+	// 交差点の数(交差点 k = x * numY + y)
+	private final int n;
+
+	// 辺 e = k*4 + i (交差点kから交差点番号iへ抜ける道路)の先の交差点(道路がなければ -1)
+	private final int[] to;
+	// 交差点kに入ってくる辺(k*4 から inCount[k] 個)
+	private final int[] in;
+	private final int[] inCount;
+	// 辺のコストと、直前の計算し直しの前のコスト
+	private final int[] cost;
+	private final int[] oldCost;
+
+	// 目的地の交差点dまでの距離と、交差点kで抜ける交差点番号(インデックスは d*n + k)
+	private final int[] dist;
+	private final byte[] next;
+
+	// コストが変わった辺のリスト
+	private final int[] changed;
+	private int changedCount;
+
+	// 修正の作業用: 切り離した交差点の印とリスト、優先度キュー(上位32bitが距離、下位が交差点)
+	private final boolean[] affected;
+	private final int[] affectedList;
+	private long[] heap;
+	private int heapSize;
+
+	// 混雑の重みと、コストを計算し直す間隔(ステップ数)
+	private int weight = 1;
+	private int interval = 10;
+	private int elapsed;
+
+	/**
+	 * コンストラクタ
+	 * (Field.setRouter()で設定したときに最短経路木を作る)
+	 *
+	 * @param field 経路を決めるField
+	 */
+	public DynamicRouter(Field field) {
+		this.field = field;
+		this.numY = field.numY;
+		this.n = field.numX * field.numY;
+
+		to = new int[n * 4];
+		in = new int[n * 4];
+		inCount = new int[n];
+		for (int k = 0; k < n; k++) {
+			Intersection is = field.getIntersection(k / numY, k % numY);
+			for (int i = 0; i < 4; i++) {
+				Intersection nb = is.neighbor(i);
+				if (nb == null || is.lengthAt(i) == 0) {
+					to[k * 4 + i] = -1;
+				} else {
+					int t = nb.thisX * numY + nb.thisY;
+					to[k * 4 + i] = t;
+					in[t * 4 + inCount[t]++] = k * 4 + i;
+				}
+			}
+		}
+
+		cost = new int[n * 4];
+		oldCost = new int[n * 4];
+		dist = new int[n * n];
+		next = new byte[n * n];
+		changed = new int[n * 4];
+		affected = new boolean[n];
+		affectedList = new int[n];
+		heap = new long[n * 4];
+	}
+
+	/**
+	 * 経路を決めるFieldを返す
+	 */
+	public Field field() {
+		return field;
+	}
+
+	/**
+	 * 混雑の重み(道路の1車線あたりの1台が、道路の長さ何サイト分のコストになるか)を設定する。
+	 * 0なら道路の長さだけの最短経路になる。(デフォルトは1)
+	 */
+	public void setWeight(int weight) {
+		if (weight < 0)
+			throw new IllegalArgumentException("重みが不正です: " + weight);
+		this.weight = weight;
+	}
+
+	/**
+	 * コストを計算し直す間隔のステップ数を設定する(デフォルトは10)
+	 */
+	public void setInterval(int interval) {
+		if (interval < 1)
+			throw new IllegalArgumentException("間隔が不正です: " + interval);
+		this.interval = interval;
+	}
+
+	/**
+	 * 現在の台数からコストを計算し、全ての目的地の最短経路木を作り直す
+	 */
+	public void rebuild() {
+		for (int e = 0; e < n * 4; e++) {
+			cost[e] = costOf(e);
+		}
+		for (int d = 0; d < n; d++) {
+			build(d);
+		}
+		elapsed = 0;
+	}
+
+	/**
+	 * Field.update()の最初に呼び出される。
+	 * interval ステップごとにコストを計算し直し、変わった辺の影響を最短経路木に反映する。
+	 */
+	void step() {
+		if (++elapsed < interval) return;
+		elapsed = 0;
+
+		changedCount = 0;
+		for (int e = 0; e < n * 4; e++) {
+			int c = costOf(e);
+			if (Math.abs(c - cost[e]) * TOLERANCE > cost[e]) {
+				oldCost[e] = cost[e];
+				cost[e] = c;
+				changed[changedCount++] = e;
+			}
+		}
+		if (changedCount == 0) return;
+		for (int d = 0; d < n; d++) {
+			repair(d);
+		}
+	}
+
+	/**
+	 * 交差点(x, y)にいる(またはこれから入る)車が、目的地destへ向かうときに抜ける交差点番号を返す
+	 *
+	 * @param dest 目的地の位置(x, y, isec, step)
+	 */
+	int next(int x, int y, int[] dest) {
+		if (x == dest[0] && y == dest[1]) return dest[2];
+		return next[(dest[0] * numY + dest[1]) * n + x * numY + y];
+	}
+
+	/**
+	 * 交差点(x, y)から目的地の交差点(destX, destY)までの現在の経路のコスト
+	 */
+	public int distance(int x, int y, int destX, int destY) {
+		return dist[(destX * numY + destY) * n + x * numY + y];
+	}
+
+	/**
+	 * 交差点(x, y)から交差点番号isecへ抜ける道路の、最短経路木に使っているコスト
+	 * (道路がなければ到達できない距離)
+	 */
+	int cost(int x, int y, int isec) {
+		return cost[(x * numY + y) * 4 + isec];
+	}
+
+	// 辺eの現在のコスト
+	private int costOf(int e) {
+		if (to[e] < 0) return INF;
+		int k = e / 4;
+		int i = e % 4;
+		Intersection is = field.getIntersection(k / numY, k % numY);
+		int cars = is.carsOn(i) + is.numCarsByPosition(i, 0);
+		return is.lengthAt(i) + weight * cars / is.lanesAt(i);
+	}
+
+	// 目的地dの最短経路木を一から作る
+	private void build(int d) {
+		int base = d * n;
+		Arrays.fill(dist, base, base + n, INF);
+		Arrays.fill(next, base, base + n, (byte) -1);
+		dist[base + d] = 0;
+		push(0, d);
+		relax(base);
+	}
+
+	// 目的地dの最短経路木を、変わった辺のコストにあわせて直す
+	private void repair(int d) {
+		int base = d * n;
+
+		// コストが上がった木の辺の元の交差点と、そこを経由して目的地へ向かう交差点を切り離す
+		int m = 0;
+		for (int c = 0; c < changedCount; c++) {
+			int e = changed[c];
+			int k = e / 4;
+			if (cost[e] > oldCost[e] && next[base + k] == e % 4 && !affected[k]) {
+				affected[k] = true;
+				affectedList[m++] = k;
+			}
+		}
+		for (int j = 0; j < m; j++) {
+			int k = affectedList[j];
+			for (int c = 0; c < inCount[k]; c++) {
+				int e = in[k * 4 + c];
+				int w = e / 4;
+				if (next[base + w] == e % 4 && !affected[w]) {
+					affected[w] = true;
+					affectedList[m++] = w;
+				}
+			}
+		}
+
+		// 木の半分以上を切り離した場合は、一から作り直したほうが速い
+		if (m * 2 > n) {
+			for (int j = 0; j < m; j++) {
+				affected[affectedList[j]] = false;
+			}
+			build(d);
+			return;
+		}
+
+		// 切り離した交差点の距離を、切り離していない隣の交差点から求め直す
+		for (int j = 0; j < m; j++) {
+			int k = affectedList[j];
+			int best = INF;
+			int bestIsec = -1;
+			for (int i = 0; i < 4; i++) {
+				int t = to[k * 4 + i];
+				if (t < 0 || affected[t]) continue;
+				int dd = cost[k * 4 + i] + dist[base + t];
+				if (dd < best) {
+					best = dd;
+					bestIsec = i;
+				}
+			}
+			dist[base + k] = best;
+			next[base + k] = (byte) bestIsec;
+			if (best < INF) push(best, k);
+		}
+		for (int j = 0; j < m; j++) {
+			affected[affectedList[j]] = false;
+		}
+
+		// コストが下がった辺で近くなる交差点
+		for (int c = 0; c < changedCount; c++) {
+			int e = changed[c];
+			if (cost[e] >= oldCost[e]) continue;
+			int k = e / 4;
+			int dd = cost[e] + dist[base + to[e]];
+			if (k != d && dd < dist[base + k]) {
+				dist[base + k] = dd;
+				next[base + k] = (byte) (e % 4);
+				push(dd, k);
+			}
+		}
+
+		relax(base);
+	}
+
+	// 優先度キューが空になるまで、距離の短い交差点から入ってくる辺をたどって距離を更新する
+	private void relax(int base) {
+		while (heapSize > 0) {
+			long top = poll();
+			int k = (int) top;
+			int dk = (int) (top >>> 32);
+			if (dk != dist[base + k]) continue;
+			for (int c = 0; c < inCount[k]; c++) {
+				int e = in[k * 4 + c];
+				int w = e / 4;
+				int dd = cost[e] + dk;
+				if (dd < dist[base + w]) {
+					dist[base + w] = dd;
+					next[base + w] = (byte) (e % 4);
+					push(dd, w);
+				}
+			}
+		}
+	}
+
+	private void push(int key, int k) {
+		if (heapSize == heap.length)
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		long v = ((long) key << 32) | k;
+		int i = heapSize++;
+		while (i > 0) {
+			int p = (i - 1) / 2;
+			if (heap[p] <= v) break;
+			heap[i] = heap[p];
+			i = p;
+		}
+		heap[i] = v;
+	}
+
+	private long poll() {
+		long top = heap[0];
+		long v = heap[--heapSize];
+		int i = 0;
+		while (true) {
+			int c = i * 2 + 1;
+			if (c >= heapSize) break;
+			if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+			if (heap[c] >= v) break;
+			heap[i] = heap[c];
+			i = c;
+		}
+		heap[i] = v;
+		return top;
+	}
+}
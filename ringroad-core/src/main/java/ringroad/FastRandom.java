@@ -0,0 +1,99 @@
+package ringroad;
+
+/**
+ * シミュレーション用の乱数生成器 (xoroshiro128+)
+ *
+ * java.util.Randomと違って同期をとらないため、1つのFieldの中だけで使う。
+ * 種が同じなら同じ乱数列を生成するので、種を指定すれば計算を再現できる。
+ * 種は SplitMix64 で128bitの内部状態に拡張するため、
+ * 0, 1, 2, ... のような連番の種からでも互いに独立な乱数列が得られる。
+ */
+public class FastRandom {
+
+	// 内部状態
+	private long s0, s1;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param seed 乱数の種
+	 */
+	public FastRandom(long seed) {
+		setSeed(seed);
+	}
+
+	/**
+	 * 乱数の種を設定し直す
+	 */
+	public void setSeed(long seed) {
+		long z = seed;
+		z += 0x9E3779B97F4A7C15L;
+		s0 = mix(z);
+		z += 0x9E3779B97F4A7C15L;
+		s1 = mix(z);
+		// 内部状態が全て0になると乱数列が0だけになってしまう
+		if (s0 == 0 && s1 == 0) s1 = 1;
+	}
+
+	/**
+	 * 内部状態を返す(チェックポイントの保存用)
+	 */
+	public long[] getState() {
+		return new long[] {s0, s1};
+	}
+
+	/**
+	 * 内部状態を設定する(チェックポイントからの復元用)
+	 */
+	public void setState(long s0, long s1) {
+		if (s0 == 0 && s1 == 0)
+			throw new IllegalArgumentException("内部状態が全て0です");
+		this.s0 = s0;
+		this.s1 = s1;
+	}
+
+	// SplitMix64の出力関数
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * 64bitの乱数を返す
+	 */
+	public long nextLong() {
+		long a = s0;
+		long b = s1;
+		long result = a + b;
+		b ^= a;
+		s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+		s1 = Long.rotateLeft(b, 37);
+		return result;
+	}
+
+	/**
+	 * 0以上bound未満の一様な整数の乱数を返す
+	 *
+	 * @param bound 上限(正の数)
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		// 上位31bitを使う。偏りが出ないよう、端数の範囲に入った場合は引き直す
+		int r = (int) (nextLong() >>> 33);
+		int m = bound - 1;
+		if ((bound & m) == 0)
+			return (int) ((bound * (long) r) >> 31);
+		for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33))
+			;
+		return r;
+	}
+
+	/**
+	 * 0.0以上1.0未満の一様な実数の乱数を返す
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+}
@@ -0,0 +1,509 @@
+package ringroad;
+
+/**
+ * 放射環状道路のモデルを表すクラス
+ *
+ * setThreads() で2以上のスレッド数を指定した場合は、使い終わったら close() で
+ * 更新用のワーカスレッドを停止すること。
+ */
+public class Field implements AutoCloseable {
+
+	/**
+	 * 交差点の2次元配列
+	 */
+	protected Intersection[][] intersections;
+
+	/**
+	 * 中心半径
+	 */
+	public int rc;
+	/**
+	 * 放射道路の本数
+	 */
+	public int numX;
+	/**
+	 * 環状道路の本数
+	 */
+	public int numY;
+	/**
+	 * 放射道路の1区間の長さ
+	 */
+	public int dY;
+	/**
+	 * 環状道路の1区間の長さ
+	 */
+	public int[] dX;
+
+	/**
+	 * 継承クラスが呼び出す空コンストラクタ
+	 */
+	public Field() {
+		rc = numX = numY = dY = 0;
+		dX = null;
+	}
+
+	/**
+	 * 1ステップあたりの発生台数
+	 */
+	private double spawnProb;
+
+	/**
+	 * 1ステップごとに確率的に発生させる車の台数を設定する。
+	 *
+	 * @param prob 1ステップに発生させる車の台数
+	 */
+	public void setSpawnProbability(double prob) {
+		spawnProb = prob;
+	}
+
+	/**
+	 * 1ステップごとに確率的に発生させる車の台数を取得する。
+	 */
+	public double getSpawnProbability() {
+		return spawnProb;
+	}
+
+	/**
+	 * 車の発生・目的地の決定に使う乱数生成器
+	 */
+	private final FastRandom random = new FastRandom(System.nanoTime());
+
+	/**
+	 * 乱数の種を設定する。
+	 * 同じネットワーク・同じ種で実行すれば、同じ計算結果が再現される。
+	 *
+	 * @param seed 乱数の種
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	/**
+	 * このFieldの乱数生成器を返す
+	 */
+	FastRandom random() {
+		return random;
+	}
+
+	/**
+	 * 密度を一定に保つかどうか
+	 */
+	private boolean constantDensity;
+
+	/**
+	 * 密度を一定に保つかどうかを指定する。
+	 * 密度を一定に保つ場合、車が1台削除されたと同時に1台生成される。
+	 * 削除された台数分の車は、同じステップの最後に空きスロットからまとめて発生させ、
+	 * 確率的な発生(setSpawnProbability)は行なわない。
+	 */
+	public void setConstantDensity(boolean cons) {
+		constantDensity = cons;
+	}
+
+	/**
+	 * 密度を一定に保つかどうかを取得する。
+	 */
+	public boolean isConstantDensity() {
+		return constantDensity;
+	}
+
+	/** 車の台数 */
+	public int carCount;
+
+	/** 全サイト数 */
+	public int siteCount;
+
+	/** 密度を取得する */
+	public double getDensity() {
+		return ((double) carCount) / siteCount;
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param rc   中心半径
+	 * @param numX 放射道路の本数
+	 * @param numY 環状道路の本数
+	 * @param dY   環状道路の1区間の長さ
+	 */
+	public Field(int rc, int numX, int numY, int dY) {
+		this(rc, numX, numY, dY, IntersectionType.inner(numY, 0));
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param rc    中心半径
+	 * @param numX  放射道路の本数
+	 * @param numY  環状道路の本数
+	 * @param dY    環状道路の1区間の長さ
+	 * @param types 各環状道路上の交差点の種類(内側から;numY個)
+	 */
+	public Field(int rc, int numX, int numY, int dY, IntersectionType[] types) {
+		if (types.length != numY)
+			throw new IllegalArgumentException("交差点の種類の数が環状道路の本数と異なります: " + types.length);
+		this.numX = numX;
+		this.numY = numY;
+		this.rc = rc;
+		this.dY = dY;
+
+		intersections = new Intersection[numX][numY];
+
+		dX = new int[numY];
+
+		// DEBUG
+		//System.out.println("Field initializing...");
+		//System.out.println("放射道路の区間長: " + dY);
+
+		// 交差点オブジェクトの生成
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY; y++) {
+				// 交差点番号0,2方向は、同心円上の環状道路部なので同じ長さ。
+				// 交差点番号1,3方向は、放射道路なので同じ長さ==dY。
+				// ただし、最内側と最外側は片方の放射道路を持たない。
+				// その場合は0を与える。
+				int n02 = (int) Math.round((rc + (dY * y)) * 2 * Math.PI / numX);
+				int n1 = (y == 0 ? 0 : dY);
+				int n3 = (y == numY-1 ? 0 : dY);
+
+				dX[y] = n02;
+
+				// Fieldクラスでは全て1車線道路。
+				intersections[x][y] = types[y].create(x, y, n02, n1, n02, n3, 1, 1, 1, 1);
+				siteCount += n02 * 2 + n1 + n3 + intersections[x][y].capacity();
+			}
+		}
+
+		// 隣接する交差点のリンク
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY; y++) {
+				intersections[x][y].connect(
+						(x == 0 ? intersections[numX-1][y] : intersections[x-1][y]),
+						(y == 0 ? null : intersections[x][y-1]),
+						(x == numX-1 ? intersections[0][y] : intersections[x+1][y]),
+						(y == numY-1 ? null : intersections[x][y+1]));
+			}
+		}
+	}
+
+	/**
+	 * 全ての信号交差点(SignalizedIntersection)の制御方式を設定する。
+	 * 制御方式は状態を持たないので、全ての交差点で同じインスタンスを共有する。
+	 */
+	public void setSignalController(SignalController controller) {
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY; y++) {
+				if (intersections[x][y] instanceof SignalizedIntersection)
+					((SignalizedIntersection) intersections[x][y]).setController(controller);
+			}
+		}
+	}
+
+	/**
+	 * 混雑に応じて経路を決める経路探索器(nullなら、出発時に決めた幾何的な経路を進む)
+	 */
+	private DynamicRouter router;
+
+	/**
+	 * 経路探索器を設定する。
+	 * 設定すると、車は交差点を抜けるたびに次の交差点で抜ける交差点番号を決め直す。
+	 * 既にいる車も、次に交差点を抜けたときからその経路探索器に従う。
+	 *
+	 * @param router このFieldの経路探索器(nullなら幾何的な経路に戻す)
+	 */
+	public void setRouter(DynamicRouter router) {
+		if (router != null && router.field() != this)
+			throw new IllegalArgumentException("別のFieldの経路探索器です");
+		this.router = router;
+		if (router != null) router.rebuild();
+	}
+
+	/**
+	 * 経路探索器を取得する(設定されていなければnull)
+	 */
+	public DynamicRouter getRouter() {
+		return router;
+	}
+
+	/**
+	 * 位置(x, y)の交差点を取得します。
+	 */
+	public Intersection getIntersection(int x, int y) {
+		return intersections[x][y];
+	}
+
+	/**
+	 * 交差点(x,y)の交差点番号isecの道路サイトの長さを取得する。
+	 * @return 交差点サイトを除いた道路サイトのサイト数
+	 */
+	public int lengthAt(int x, int y, int isec) {
+		return intersections[x][y].lengthAt(isec);
+	}
+
+	/**
+	 * 車を発生させる位置を選ぶための索引
+	 */
+	private SpawnIndex spawnIndex;
+
+	/**
+	 * n台の車を発生させる。
+	 * 発生させる位置は、全サイトの空きスロットの中から一様に選ぶ。
+	 * 空きスロットがなくなった場合は例外を投げる。
+	 *
+	 * @param n 発生させる車の台数
+	 */
+	public void createCars(int n) {
+		if (spawn(n) < n) throw new RuntimeException("車を発生できません。");
+	}
+
+	/**
+	 * 空きスロットがある限り、最大n台の車を発生させる。
+	 *
+	 * @param n 発生させる車の台数
+	 * @return 発生させた台数(空きスロットがなくなればnより少ない)
+	 */
+	private int spawn(int n) {
+		if (spawnIndex == null)
+			spawnIndex = new SpawnIndex(numX * numY);
+		spawnIndex.build(intersections);
+
+		for (int i = 0; i < n; i++) {
+			// 全ての空きスロットの中から一様に1つ選ぶ
+			if (spawnIndex.total() == 0) return i;
+			int k = spawnIndex.find(random.nextInt(spawnIndex.total()));
+			intersections[k / numY][k % numY].spawnAt(this, spawnIndex.remainder());
+			spawnIndex.add(k, -1);
+		}
+		return n;
+	}
+
+	/**
+	 * 初期状態を設定する。ランダムな位置に車を配置する
+	 *
+	 * @param n 発生させる車の台数
+	 */
+	public void initialize(int n) {
+		createCars(n);
+	}
+
+	/**
+	 * 初期状態を、初期密度を指定して設定する。ランダムな位置に車を配置する
+	 *
+	 * @param dens 初期密度(0.0 <= dens <= 1.0)
+	 */
+	public void initialize(double dens) {
+		createCars((int) (dens * siteCount));
+	}
+
+
+	// update()のフェーズ番号
+	static final int PHASE_DESPAWN = 0;
+	static final int PHASE_ROAD_SITES = 1;
+	static final int PHASE_EXIT = 2;
+	static final int PHASE_INTERSECTION = 3;
+	static final int PHASE_ENTER = 4;
+	static final int PHASE_THROUGH = 5;
+	static final int NUM_PHASES = 6;
+
+	/**
+	 * 複数スレッドで更新する場合のセクタ分割(1スレッドの場合はnull)
+	 */
+	private SectorUpdater sectors;
+
+	/**
+	 * update()を実行するスレッド数を設定する。
+	 * 2以上を指定すると、交差点をX方向(角度方向)のセクタに分割し、
+	 * 各フェーズをセクタごとに並列に実行する。結果は1スレッドの場合と同一になる。
+	 * ワーカスレッドはこのFieldを参照したまま待ち続けるので、
+	 * 使い終わったら close() (または setThreads(1))で停止すること。
+	 *
+	 * @param n スレッド数(1なら呼び出し元のスレッドだけで更新する)
+	 */
+	public void setThreads(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("スレッド数が不正です: " + n);
+		close();
+		n = Math.min(n, numX);
+		if (n > 1)
+			sectors = new SectorUpdater(this, n);
+	}
+
+	/**
+	 * 更新用のワーカスレッドを停止し、1スレッドでの更新に戻す。
+	 * 何度呼び出してもよく、呼び出した後も update() は使える。
+	 */
+	@Override
+	public void close() {
+		if (sectors != null) {
+			sectors.shutdown();
+			sectors = null;
+		}
+	}
+
+	/**
+	 * 系を1ステップ更新する。
+	 * 全てのサイトが埋まっていて車を発生させられない場合も例外は投げず、
+	 * 発生させられなかった台数を getUnspawned() で返す。
+	 *
+	 * @return 動いた車の台数
+	 */
+	public int update() {
+		int deleted;
+		int moved;
+		// 経路探索器のコストと最短経路木は、各フェーズの前に1スレッドで更新する
+		if (router != null) router.step();
+		if (sectors == null) {
+			// Phase 0: 車が目的地に到着しているか調べて消滅させる
+			deleted = updatePhase(PHASE_DESPAWN, 0, numX);
+
+			moved = 0;
+			for (int phase = PHASE_ROAD_SITES; phase < NUM_PHASES; phase++) {
+				moved += updatePhase(phase, 0, numX);
+			}
+		} else {
+			sectors.update();
+			deleted = sectors.deleted();
+			moved = sectors.moved();
+		}
+		carCount -= deleted;
+		lastDeleted = deleted;
+
+		// 場合によっては車を発生(空きがなければ発生させられるだけ発生させる)
+		// 密度を一定に保つ場合は、消滅させた台数だけ発生させる
+		int n;
+		if (constantDensity)
+			n = deleted;
+		else
+			n = (int) spawnProb + (random.nextDouble() < (spawnProb % 1) ? 1 : 0);
+		lastSpawned = (n > 0 ? spawn(n) : 0);
+		lastUnspawned = n - lastSpawned;
+
+		return moved;
+	}
+
+	// 直前のupdate()で消滅・発生した車の台数と、空きがなくて発生させられなかった台数
+	private int lastDeleted;
+	private int lastSpawned;
+	private int lastUnspawned;
+
+	/**
+	 * 直前のupdate()で目的地に到着して消滅した車の台数
+	 */
+	public int getDeleted() {
+		return lastDeleted;
+	}
+
+	/**
+	 * 直前のupdate()で発生させた車の台数
+	 */
+	public int getSpawned() {
+		return lastSpawned;
+	}
+
+	/**
+	 * 直前のupdate()で、全てのサイトが埋まっていて発生させられなかった車の台数
+	 */
+	public int getUnspawned() {
+		return lastUnspawned;
+	}
+
+	/**
+	 * 直前のupdate()で、交差点サイトが全て埋まっていて
+	 * 車を回すことしかできなかった交差点の数
+	 */
+	public int getRotating() {
+		int n = 0;
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY; y++) {
+				if (intersections[x][y].isRotating()) n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * X座標が x0 <= x < x1 の範囲の交差点について、update()の1フェーズを実行する。
+	 *
+	 * Phase 0〜3 は各交差点が所有するサイト(自分の交差点サイトと、
+	 * 自分から伸びる道路サイト)しか操作しない。
+	 * Phase 4 は隣接交差点の道路の出口サイトから車を取り出すが、
+	 * 各道路の出口から取り出すのはその道路が接続する交差点1つだけなので、
+	 * Phase 4 の間は出口サイトの所有権がその交差点に移ると考えればよい。
+	 * Phase 5 は自分から伸びる道路の入口に、Phase 4 で交差点に入って通り抜ける車を置く。
+	 * したがって、フェーズの間で同期をとれば、範囲ごとに別スレッドで実行しても
+	 * 結果は順番に実行した場合と変わらない。
+	 *
+	 * @return Phase 0 では消滅させた台数、それ以外では動いた台数
+	 */
+	int updatePhase(int phase, int x0, int x1) {
+		int n = 0;
+		switch (phase) {
+		case PHASE_DESPAWN:
+			// 目的地に到着した車を消滅させる
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].tryDespawn();
+				}
+			}
+			break;
+		case PHASE_ROAD_SITES:
+			// 交差点ごとに道路サイトの内部アップデートを行なう
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].updateRoadSites();
+				}
+			}
+			break;
+		case PHASE_EXIT:
+			// 交差点から道路サイトへ抜ける車を移動させる
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].updateExit();
+				}
+			}
+			break;
+		case PHASE_INTERSECTION:
+			// 交差点を回る全ての車を移動させる
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].updateIntersection();
+				}
+			}
+			break;
+		case PHASE_ENTER:
+			// 隣接する交差点の道路サイトから交差点へ入る車を移動させる
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].updateEnter();
+				}
+			}
+			break;
+		case PHASE_THROUGH:
+			// 交差点を通り抜ける車を道路の入口へ置く
+			for (int x = x0; x < x1; x++) {
+				for (int y = 0; y < numY; y++) {
+					n += intersections[x][y].updateThrough();
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("不正なフェーズです: " + phase);
+		}
+		return n;
+	}
+
+
+	/**
+	 * 描画用インターフェース：指定した位置のサイトに入っている車の台数を取得する
+	 */
+	public int numCarsByPosition(int x, int y, int isec, int step) {
+		return intersections[x][y].numCarsByPosition(isec, step);
+	}
+
+	/**
+	 * for Debug: get car dir(out intersection)
+	 */
+	public int getCarOut(int x, int y, int isec, int step) {
+		return intersections[x][y].getCarOut(isec, step);
+	}
+}
@@ -0,0 +1,32 @@
+package ringroad;
+
+/**
+ * 定周期の信号制御
+ * 交通量に依らず、一定のステップ数ごとに現示を切り替える。
+ */
+public class FixedTimeController implements SignalController {
+
+	// 青のステップ数
+	private final int green;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param green 1つの現示の青のステップ数
+	 */
+	public FixedTimeController(int green) {
+		if (green < 1)
+			throw new IllegalArgumentException("green < 1: " + green);
+		this.green = green;
+	}
+
+	@Override
+	public int nextPhase(SignalizedIntersection is) {
+		return (is.elapsed() >= green ? 1 - is.phase() : is.phase());
+	}
+
+	@Override
+	public String toString() {
+		return "fixed:" + green;
+	}
+}
@@ -18,8 +18,21 @@ public class GradualField extends Field {
 	 * @param dY   環状道路の1区間の長さ
 	 */
 	public GradualField(int rc, int numX, int[] numY, int dY) {
+		this(rc, numX, numY, dY, IntersectionType.inner(numY.length, 0));
+	}
 
-		Car.field = this;
+	/**
+	 * コンストラクタ
+	 *
+	 * @param rc    中心半径
+	 * @param numX  放射道路の本数
+	 * @param numY  各環状道路の車線数(内側から;int配列)
+	 * @param dY    環状道路の1区間の長さ
+	 * @param types 各環状道路上の交差点の種類(内側から;numYと同じ個数)
+	 */
+	public GradualField(int rc, int numX, int[] numY, int dY, IntersectionType[] types) {
+		if (types.length != numY.length)
+			throw new IllegalArgumentException("交差点の種類の数が環状道路の本数と異なります: " + types.length);
 
 		// 継承元クラスに定義されているフィールドの値を設定する
 		this.numX = numX;
@@ -49,9 +62,10 @@ public class GradualField extends Field {
 
 				// 環状道路のみ指定された車線とする。
 				// 放射道路は全て1車線とする。
-				intersections[x][y] = new Roundabout(x, y, n02, n1, n02, n3,
+				intersections[x][y] = types[y].create(x, y, n02, n1, n02, n3,
 						numY[y], m1, numY[y], m3);
-				siteCount += n02 * numY[y] * 2 + n1 * m1 + n3 * m3 + 4;
+				siteCount += n02 * numY[y] * 2 + n1 * m1 + n3 * m3
+						+ intersections[x][y].capacity();
 			}
 		}
 
@@ -0,0 +1,291 @@
+package ringroad;
+
+/**
+ * 立体交差の交差点ルールを持つ交差点
+ *
+ * 直進する車は他の流れと交差しないので、道路の出口から直進先の道路の入口へ
+ * 1ステップで移動し、右左折の車のキューを使わない
+ * (直進先の入口が空いていない場合は右左折の車と同様にキューへ入る)。
+ * 右左折・Uターンする車と、この交差点のサイトが目的地の車は、容量のある
+ * 1つの交差点サイトのキュー(InterchangeSite)を共有し、抜ける道路の入口が空けば
+ * キューのどの位置からでも抜ける。キューが一杯の間は、これらの車は道路の出口で待つ。
+ * 詰まった1つの道路へ抜ける車がキューを占有して他の流れを止めないよう、
+ * 同じ道路へ抜ける車はその道路の車線数までしかキューに入れない。
+ *
+ * キューにいる車の位置は (thisX, thisY, 抜ける交差点番号, 0) とする。
+ * キューの容量は1車線のRoundaboutの交差点サイト数と同じ4台とする。
+ *
+ * 道路の出口から交差点へ入るフェーズ(Phase 4)では、隣の交差点が同じフェーズでこの交差点の
+ * 道路の出口から車を取り出すので、この交差点の道路には書き込まない。直進する車は
+ * Phase 4 で直進用の待ち場所(through)に移し、最後のフェーズ(Phase 5)で道路の入口へ置く。
+ * 直進できるかどうかは、交差点内のフェーズ(Phase 3)の終わりの入口の空きで判定するので、
+ * Phase 5 で必ず入口に入れる。したがってステップの間に直進用の待ち場所に車はおらず、
+ * 待ち場所はサイトとして数えない。
+ */
+public class Interchange extends Intersection {
+
+	// 交差点サイトのキューの容量
+	private static final int CAPACITY = 4;
+
+	// この交差点のサイト
+	private InterchangeSite interchange;
+	// 交差点番号iの道路へ直進する車の、Phase 4 から Phase 5 までの待ち場所(道路がなければnull)
+	private RoadSite[] through;
+	// Phase 3 の終わりの、交差点番号iの道路の入口の空き
+	private int[] entryFree = new int[4];
+
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX, thisY : この交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 */
+	public Interchange(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3) {
+		super(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+
+		// この交差点のサイト
+		interchange = new InterchangeSite(thisX, thisY, CAPACITY);
+		through = new RoadSite[4];
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] != null)
+				through[i] = new RoadSite(thisX, thisY, i, 0, roads[i].lanes());
+		}
+	}
+
+	@Override
+	public int numCarsByPosition(int isec, int step) {
+		if (step == 0)
+			return interchange.carsAt(isec);
+		else
+			return roads[isec].carsAt(step);
+	}
+
+	/**
+	 * 交差点サイトのキューから道路サイトへ抜ける車をアップデートする
+	 */
+	@Override
+	public int updateExit() {
+		return interchange.exitTo(roads);
+	}
+
+	/**
+	 * 交差点サイトの車は抜ける交差点番号の位置で待っているので、交差点内では動かない。
+	 * 直進する車が入れるかどうかの判定に使う、各道路の入口の空きを記録する。
+	 */
+	@Override
+	public int updateIntersection() {
+		for (int i = 0; i < 4; i++) {
+			entryFree[i] = (roads[i] == null ? 0 : roads[i].entrySpace());
+		}
+		return 0;
+	}
+
+	/**
+	 * 道路サイトからこの交差点へ入る車をアップデートする。
+	 *
+	 * 隣接する交差点の道路の出口にいる車を先頭から調べ、直進する車は
+	 * 直進用の待ち場所へ、それ以外の車は交差点サイトのキューへ移動させる。
+	 * 1つの方向からは、入ってくる道路の車線数まで続けて入れる。
+	 * 先頭の車が入れなければ、その後ろの車も待つ。
+	 */
+	@Override
+	public int updateEnter() {
+		int moved = 0;
+		// 交差点番号 i の方向から来る車は、neighbors[i]の交差点番号(i+2)%4の道路から入る
+		for (int i = 0; i < 4; i++) {
+			if (neighbors[i] == null) continue;
+			int from = (i + 2) % 4;
+			int lanes = neighbors[i].lanesAt(from);
+			for (int k = 0; k < lanes; k++) {
+				Car car = neighbors[i].peekFromRoad(from);
+				if (car == null) break;
+
+				int out = car.outIsec();
+				if (out == from && passable(car, out)) {
+					// 直進: Phase 5 で直進先の道路の入口へ置く
+					neighbors[i].moveFromRoad(from);
+					through[out].enqueue(car);
+					car.move(thisX, thisY, out, 0);
+					moved++;
+				} else if (interchange.emptySpace() > 0 && interchange.carsAt(out) < lanesAt(out)) {
+					// 右左折・Uターン・直進先が詰まっている場合: 交差点サイトのキューへ
+					neighbors[i].moveFromRoad(from);
+					interchange.enqueue(car);
+					car.move(thisX, thisY, out, 0);
+					moved++;
+				} else {
+					break;
+				}
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * 直進する車を Phase 5 で待ち場所から道路の入口へ置く
+	 * (動いた台数は交差点に入ったときに数えてある)
+	 */
+	@Override
+	public int updateThrough() {
+		for (int i = 0; i < 4; i++) {
+			if (through[i] == null) continue;
+			while (through[i].size() > 0) {
+				if (!roads[i].tryExit(through[i].poll()))
+					throw new RuntimeException("直進する車が道路の入口に入れません");
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 直進する車が、Phase 3 の終わりに空いていた交差点番号outの道路の入口に入れるか
+	 */
+	private boolean passable(Car car, int out) {
+		if (through[out] == null || through[out].size() >= entryFree[out]) return false;
+		// この交差点の交差点サイトが目的地の車は、そこで消滅させる
+		int[] dest = car.getDestination();
+		return !(dest[0] == thisX && dest[1] == thisY && dest[2] == out && dest[3] == 0);
+	}
+
+	/**
+	 * 車の発生を試みる
+	 *
+	 * @param field 発生させる車が属するField
+	 */
+	@Override
+	public boolean trySpawn(Field field, int isec, int step) {
+		if (step == 0) {
+			// 交差点サイトのキューに空きがあれば発生させる
+			if (interchange.emptySpace() == 0) return false;
+			spawnInIntersection(field, isec);
+			return true;
+		} else {
+			// 道路サイトに発生させる場合、道路サイトのメソッドへ投げる
+			return roads[isec].trySpawn(field, step);
+		}
+	}
+
+	// 交差点番号isecの交差点サイトに車を発生させ、抜ける交差点番号の位置に並べる
+	private void spawnInIntersection(Field field, int isec) {
+		Car car = new Car(field, thisX, thisY, isec, 0);
+		interchange.enqueue(car);
+		car.move(thisX, thisY, car.outIsec(), 0);
+	}
+
+	/**
+	 * この交差点の空き容量を返す
+	 */
+	@Override
+	public int freeSpace() {
+		int free = interchange.emptySpace();
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] != null) free += roads[i].freeSpace();
+		}
+		return free;
+	}
+
+	/**
+	 * 空きスロットのうちr番目に車を発生させる。
+	 * 交差点サイトのキュー、道路サイト0〜3の順に数える。
+	 * キューに発生させる車の出発地の交差点番号は r とする。
+	 */
+	@Override
+	public void spawnAt(Field field, int r) {
+		int empty = interchange.emptySpace();
+		if (r < empty) {
+			spawnInIntersection(field, r);
+			return;
+		}
+		r -= empty;
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] == null) continue;
+			int free = roads[i].freeSpace();
+			if (r < free) {
+				roads[i].spawnAt(field, r);
+				return;
+			}
+			r -= free;
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + r);
+	}
+
+	/**
+	 * 交差点番号isecの交差点サイトから、消滅させる車を取り除く
+	 */
+	@Override
+	protected boolean removeFromIntersection(Car car, int isec) {
+		return interchange.remove(car);
+	}
+
+	@Override
+	public int getCarOut(int isec, int step) {
+		if (step == 0) {
+			Car car = interchange.firstAt(isec);
+			if (car == null) throw new RuntimeException("Something happen");
+			return car.outIsec();
+		} else {
+			return roads[isec].getCarOut(step);
+		}
+	}
+
+
+	/**
+	 * 立体交差用の交差点サイト
+	 *
+	 * 右左折する車が共有するキュー。各車は抜ける交差点番号の位置にいて、
+	 * 抜ける道路の入口が空いていれば、前の車を待たずに抜ける。
+	 */
+	static class InterchangeSite extends RoadSite {
+
+		public InterchangeSite(int thisX, int thisY, int n) {
+			super(thisX, thisY, 0, 0, n);
+		}
+
+		/**
+		 * 交差点番号isecの位置にいる車の台数
+		 */
+		int carsAt(int isec) {
+			int n = 0;
+			for (int i = 0; i < size; i++) {
+				if (get(i).getCurrent()[2] == isec) n++;
+			}
+			return n;
+		}
+
+		/**
+		 * 交差点番号isecの位置にいる、キューの先頭に最も近い車(いなければnull)
+		 */
+		Car firstAt(int isec) {
+			for (int i = 0; i < size; i++) {
+				if (get(i).getCurrent()[2] == isec) return get(i);
+			}
+			return null;
+		}
+
+		/**
+		 * キューの先頭から順に、抜ける道路の入口が空いている車を道路サイトへ移動させる
+		 * (目的地に到着した車は消滅を待つので動かさない)
+		 *
+		 * @param roads 交差点の道路サイトの配列
+		 * @return 移動した台数
+		 */
+		int exitTo(Road[] roads) {
+			int moved = 0;
+			for (int i = 0; i < size; ) {
+				Car car = get(i);
+				Road road = roads[car.getCurrent()[2]];
+				if (!car.isDespawn() && road.tryExit(car)) {
+					remove(i);
+					moved++;
+				} else {
+					i++;
+				}
+			}
+			return moved;
+		}
+	}
+
+}
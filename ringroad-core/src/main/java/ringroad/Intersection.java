@@ -0,0 +1,239 @@
+package ringroad;
+
+import java.util.ArrayList;
+
+/**
+ * 交差点クラスのためのインターフェース(実装上は抽象クラス)
+ *
+ */
+public abstract class Intersection {
+
+	/**
+	 * この交差点のX座標
+	 */
+	public final int thisX;
+
+	/**
+	 * この交差点のY座標
+	 */
+	public final int thisY;
+
+	/**
+	 * 道路サイトの配列
+	 */
+	protected Road[] roads;
+
+	/**
+	 * 隣接する交差点の配列
+	 * 交差点番号 i から伸びる道路サイトが接続する交差点を neighbors[i] に格納する。
+	 */
+	protected Intersection[] neighbors;
+
+	/**
+	 * この交差点のサイト(交差点サイトと、この交差点から伸びる道路サイト)で
+	 * 目的地に到着した車。次の tryDespawn() で消滅させる。
+	 */
+	protected final ArrayList<Car> arrivals = new ArrayList<Car>();
+
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX, thisY : この交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ(0なら道路なし)
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 */
+	public Intersection(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3) {
+		this.thisX = thisX;
+		this.thisY = thisY;
+
+		// 道路サイトのオブジェクトを生成
+		roads = new Road[4];
+		roads[0] = (len0 == 0 ? null : (n0 == 1 ? new SingleRoad(thisX, thisY, 0, len0)
+									 : new MultipleRoad(thisX, thisY, 0, len0, n0)));
+		roads[1] = (len1 == 0 ? null : (n1 == 1 ? new SingleRoad(thisX, thisY, 1, len1)
+									 : new MultipleRoad(thisX, thisY, 1, len1, n1)));
+		roads[2] = (len2 == 0 ? null : (n2 == 1 ? new SingleRoad(thisX, thisY, 2, len2)
+									 : new MultipleRoad(thisX, thisY, 2, len2, n2)));
+		roads[3] = (len3 == 0 ? null : (n3 == 1 ? new SingleRoad(thisX, thisY, 3, len3)
+									 : new MultipleRoad(thisX, thisY, 3, len3, n3)));
+	}
+
+
+	/**
+	 * 指定された交差点番号の交差点に隣接する交差点を取得する
+	 */
+	public Intersection neighbor(int isec) {
+		return neighbors[isec];
+	}
+
+	/**
+	 * 隣接する交差点を設定する
+	 * @param is0 この交差点の交差点番号0から伸びる道路サイトの先に接続する交差点
+	 * @param is1 この交差点の交差点番号1から伸びる道路サイトの先に接続する交差点
+	 * @param is2 この交差点の交差点番号2から伸びる道路サイトの先に接続する交差点
+	 * @param is3 この交差点の交差点番号3から伸びる道路サイトの先に接続する交差点
+	 */
+	public void connect(Intersection is0, Intersection is1,
+			Intersection is2, Intersection is3) {
+		neighbors = new Intersection[] {is0, is1, is2, is3}; // 順番通りに格納
+	}
+
+	/**
+	// 交差点番号isecに接続されている、交差点を含まないサイト数を返す。
+	 */
+	public int lengthAt(int isec) {
+		if (roads[isec] == null) {
+			return 0;
+		} else {
+			return roads[isec].length;
+		}
+	}
+
+	/**
+	 * 交差点番号isecに接続されている道路の車線数を返す(道路がなければ1)
+	 */
+	public int lanesAt(int isec) {
+		return (roads[isec] == null ? 1 : roads[isec].lanes());
+	}
+
+	/**
+	 * 交差点番号isecに接続されている道路にいる車の台数を返す(交差点サイトは含まない)
+	 */
+	public int carsOn(int isec) {
+		return (roads[isec] == null ? 0 : roads[isec].size());
+	}
+
+	public abstract int numCarsByPosition(int isec, int step);
+
+	/**
+	 * この交差点の交差点サイトの容量(車数)を返す
+	 * (全サイト数の計算に使う。道路サイトは含まない)
+	 */
+	public int capacity() {
+		return 4;
+	}
+
+
+	/**
+	 * この交差点が持つ道路サイトの内部をアップデートする
+	 *
+	 * @return 動いた車の数
+	 */
+	public int updateRoadSites() {
+		int moved = 0;
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] != null)
+				moved += roads[i].updateInternal();
+		}
+		return moved;
+	}
+
+	/** 交差点から出て行く車のアップデートを行なう */
+	public abstract int updateExit();
+
+	/** 交差点内の車のアップデートを行なう */
+	public abstract int updateIntersection();
+
+	/** 交差点に入ってくる車のアップデートを行なう */
+	public abstract int updateEnter();
+
+	/**
+	 * 交差点に入ってきたフェーズで待たせた車を、この交差点の道路の入口へ置く。
+	 * (交差点をそのまま通り抜ける車がある交差点だけが使う)
+	 * @return 動いた台数(交差点に入ったときに数えていれば0)
+	 */
+	public int updateThrough() {
+		return 0;
+	}
+
+	/**
+	 * 直前の updateIntersection() で、交差点サイトが全て埋まっていて
+	 * 車を回すことしかできなかったかどうか(渋滞の判定に使う)
+	 */
+	public boolean isRotating() {
+		return false;
+	}
+
+	/**
+	 * 車の発生を試みる
+	 * @param field 発生させる車が属するField
+	 */
+	public abstract boolean trySpawn(Field field, int isec, int step);
+
+	/**
+	 * この交差点の空き容量(交差点サイトと、この交差点から伸びる道路サイトの
+	 * 空きスロット数の合計)を返す
+	 */
+	public abstract int freeSpace();
+
+	/**
+	 * 空きスロットのうちr番目に車を発生させる
+	 * @param field 発生させる車が属するField
+	 * @param r     0 <= r < freeSpace()
+	 */
+	public abstract void spawnAt(Field field, int r);
+
+	/**
+	 * 目的地に到着した車を登録する。
+	 * 車はこの交差点のサイトにいるので、Field.update()の同じフェーズで
+	 * この交差点を操作するスレッド以外から呼ばれることはない。
+	 */
+	void arrive(Car car) {
+		arrivals.add(car);
+	}
+
+	/**
+	 * 車の消滅を行なう。
+	 * (この交差点のサイトで目的地に到着したと登録された車だけを調べる)
+	 * @return 消滅させた台数
+	 */
+	public int tryDespawn() {
+		int deleted = 0;
+		for (int j = 0; j < arrivals.size(); j++) {
+			Car car = arrivals.get(j);
+			if (!car.isDespawn()) continue;
+			int[] pos = car.getCurrent();
+			if (pos[3] == 0) {
+				// 交差点サイト
+				if (!removeFromIntersection(car, pos[2]))
+					throw new RuntimeException("消滅させる車が交差点サイトにいません");
+			} else {
+				// 道路サイト
+				roads[pos[2]].despawn(car, pos[3]);
+			}
+			car.despawning();
+			deleted++;
+		}
+		arrivals.clear();
+		return deleted;
+	}
+
+	/**
+	 * 交差点番号isecの交差点サイトから、消滅させる車を取り除く
+	 * @return 車がその交差点サイトにいて取り除いたかどうか
+	 */
+	protected abstract boolean removeFromIntersection(Car car, int isec);
+
+	/**
+	 * 指定された交差点番号における道路の出口から車を1台取り出す
+	 * @return 取り出した車(移動できる車がなければnull)
+	 */
+	public Car moveFromRoad(int isec) {
+		if (roads[isec] == null)
+			return null;
+		else
+			return roads[isec].moveFromRoad();
+	}
+
+	/**
+	 * 指定された交差点番号における道路の出口から次に取り出される車を、取り出さずに返す
+	 * @return 取り出せる車(移動できる車がなければnull)
+	 */
+	public Car peekFromRoad(int isec) {
+		return (roads[isec] == null ? null : roads[isec].peekFromRoad());
+	}
+
+	public abstract int getCarOut(int isec, int step);
+}
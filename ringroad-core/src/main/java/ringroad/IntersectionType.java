@@ -0,0 +1,63 @@
+package ringroad;
+
+/**
+ * 交差点の種類
+ *
+ * Field・GradualFieldのコンストラクタに環状道路ごと(内側から)の配列で与え、
+ * その環状道路上の交差点を生成する。
+ */
+public enum IntersectionType {
+
+	/** ラウンドアバウト交差点 (Roundabout) */
+	ROUNDABOUT,
+
+	/** 立体交差 (Interchange) */
+	INTERCHANGE,
+
+	/** 信号交差点 (SignalizedIntersection) */
+	SIGNALIZED;
+
+	/**
+	 * この種類の交差点を生成する
+	 *
+	 * @param thisX, thisY : 交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 */
+	public Intersection create(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3) {
+		switch (this) {
+		case INTERCHANGE:
+			return new Interchange(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+		case SIGNALIZED:
+			return new SignalizedIntersection(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+		default:
+			return new Roundabout(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+		}
+	}
+
+	/**
+	 * 内側のinner本の環状道路を立体交差、残りをラウンドアバウトとする配列を返す
+	 *
+	 * @param numY  環状道路の本数
+	 * @param inner 立体交差にする内側の環状道路の本数
+	 */
+	public static IntersectionType[] inner(int numY, int inner) {
+		return inner(numY, inner, INTERCHANGE);
+	}
+
+	/**
+	 * 内側のinner本の環状道路をtypeの交差点、残りをラウンドアバウトとする配列を返す
+	 *
+	 * @param numY  環状道路の本数
+	 * @param inner typeの交差点にする内側の環状道路の本数
+	 * @param type  内側の環状道路の交差点の種類
+	 */
+	public static IntersectionType[] inner(int numY, int inner, IntersectionType type) {
+		IntersectionType[] types = new IntersectionType[numY];
+		for (int y = 0; y < numY; y++) {
+			types[y] = (y < inner ? type : ROUNDABOUT);
+		}
+		return types;
+	}
+}
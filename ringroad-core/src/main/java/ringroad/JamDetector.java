@@ -0,0 +1,75 @@
+package ringroad;
+
+/**
+ * Fieldの1ステップごとの状態から渋滞を判定するクラス
+ *
+ * 次のどちらかになったら渋滞と判定する。
+ * ・全てのサイトが埋まって、車を発生させられなかった (FULL)
+ * ・patience ステップ続けて、交差点内を回る以外に車が動かず、消滅もしなかった (GRIDLOCK)
+ * 交差点サイトが全て埋まったラウンドアバウトでは車が回り続けるので、
+ * その4台分の移動は流れとみなさない。
+ *
+ * 使い方: update() のたびに step() を呼び、trueが返ったら打ち切って result() で結果を得る。
+ */
+public class JamDetector {
+
+	private final int patience;
+
+	// 判定したステップ数
+	private int steps;
+	// 続けて流れがなかったステップ数
+	private int stalled;
+	// 動いた台数の合計
+	private long totalMoved;
+
+	private SimulationResult.End end = SimulationResult.End.STEP_LIMIT;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param patience 何ステップ続けて流れがなければ GRIDLOCK とするか
+	 */
+	public JamDetector(int patience) {
+		if (patience < 1)
+			throw new IllegalArgumentException("patience < 1: " + patience);
+		this.patience = patience;
+	}
+
+	/**
+	 * Field.update() の後の状態を与えて渋滞を判定する
+	 *
+	 * @param field 判定するField
+	 * @param moved update() が返した、動いた車の台数
+	 * @return 渋滞したかどうか
+	 */
+	public boolean step(Field field, int moved) {
+		steps++;
+		totalMoved += moved;
+
+		if (field.getUnspawned() > 0) {
+			end = SimulationResult.End.FULL;
+			return true;
+		}
+
+		int flow = moved - 4 * field.getRotating() + field.getDeleted();
+		if (flow > 0 || field.carCount == 0) {
+			stalled = 0;
+		} else if (++stalled >= patience) {
+			end = SimulationResult.End.GRIDLOCK;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * これまでの判定の結果
+	 *
+	 * @param field 判定したField
+	 */
+	public SimulationResult result(Field field) {
+		// 渋滞と判定したステップは、そのステップの番号(0から数える)で表す
+		int at = (end == SimulationResult.End.STEP_LIMIT ? steps : steps - 1);
+		double flow = (steps == 0 ? 0 : ((double) totalMoved) / steps / field.siteCount);
+		return new SimulationResult(end, at, field.getDensity(), flow);
+	}
+}
@@ -0,0 +1,822 @@
+package ringroad;
+
+import java.util.Arrays;
+
+/**
+ * 放射環状道路のモデルを、オブジェクトを使わずにプリミティブ型の配列だけで表すクラス
+ *
+ * 更新ルールはField(ラウンドアバウト交差点)と同じだが、
+ * 全てのサイトと車を連続した配列に格納するため、巨大なネットワークでも
+ * ポインタを辿らずにメモリ帯域に近い速度で更新できる。
+ *
+ * サイトの番号付け:
+ *   交差点 k = x * numY + y の交差点番号 i の交差点サイトは k*4 + i。
+ *   道路 r = k*4 + isec のstep番目(1 <= step <= 長さ)のサイトは roadSite0[r] + step-1。
+ * 各サイトは容量(車線数)分のスロットを持つリングバッファで、先頭の車から前に進む。
+ *
+ * 車は番号で表し、位置・目的地・経路を車番号で引く配列に格納する。
+ * 経路はCarと同じくRouteの形式のlong値で表し、各交差点で抜ける方向はそこから計算する。
+ *
+ * 1車線道路のサイトは、サイトの配列とは別に1サイト1bitの占有ビット列も持つ。
+ * ビット並列カーネル(setBitKernel)を有効にすると、1車線道路の内部アップデートは
+ * このビット列の上で64サイト分ずつまとめて行なう。無効にすると1サイトずつ処理する。
+ * どちらでも結果は同じになる。
+ */
+public class LatticeField {
+
+	/** 中心半径 */
+	public final int rc;
+	/** 放射道路の本数 */
+	public final int numX;
+	/** 環状道路の本数 */
+	public final int numY;
+	/** 放射道路の1区間の長さ */
+	public final int dY;
+	/** 環状道路の1区間の長さ */
+	public final int[] dX;
+
+	/** 車の台数 */
+	public int carCount;
+
+	/** 全サイト数(車線数分を含む) */
+	public int siteCount;
+
+	/** 1ステップあたりの発生台数 */
+	private double spawnProb;
+
+	/** 車の発生・目的地の決定に使う乱数生成器 */
+	private final FastRandom random = new FastRandom(System.nanoTime());
+
+	//====================
+	// 道路 (r = k*4 + isec)
+	//====================
+
+	// 道路の長さ(道路がなければ0)
+	private final int[] roadLen;
+	// 道路の車線数
+	private final int[] roadLanes;
+	// 道路の最初(step=1)のサイト番号
+	private final int[] roadSite0;
+	// この更新回で出口から交差点へ移動できる台数
+	private final int[] exitReady;
+	// 1車線道路の最初のサイトの占有ビット番号(64の倍数;1車線道路でなければ -1)
+	private final int[] roadBit0;
+
+	//====================
+	// 交差点の隣接関係 (CSR形式)
+	//====================
+
+	// 交差点 k に入ってくる道路は inRoad[inStart[k]] 〜 inRoad[inStart[k+1]-1]
+	private final int[] inStart;
+	// 入ってくる道路の番号
+	private final int[] inRoad;
+	// その道路から入る交差点サイトの交差点番号
+	private final int[] inSlot;
+
+	//====================
+	// サイト
+	//====================
+
+	// サイトの容量
+	private final byte[] cap;
+	// サイトにいる車の台数
+	private final byte[] cnt;
+	// リングバッファの先頭位置
+	private final byte[] head;
+	// サイトのスロットの先頭位置
+	private final int[] slotBase;
+	// スロットに入っている車の番号
+	private final int[] slots;
+
+	//====================
+	// 1車線道路の占有ビット列
+	//====================
+
+	// サイトの占有ビット番号(1車線道路のサイトでなければ -1)
+	private final int[] siteBit;
+	// 占有ビット列。道路ごとにワードの先頭から詰める
+	private final long[] occupied;
+	// 1車線道路をビット並列カーネルで更新するかどうか
+	private boolean bitKernel = true;
+
+	//====================
+	// 車 (車番号で引く)
+	//====================
+
+	// 現在のサイト番号(消滅していれば -1)
+	private int[] pos = new int[0];
+	// 目的地のサイト番号
+	private int[] dest = new int[0];
+	// 経路(Routeの形式)
+	private long[] route = new long[0];
+	// 経路の現在のステップ(通過した交差点数)
+	private int[] routeStep = new int[0];
+
+	// 車を発生させる位置を選ぶための索引と、交差点ごとの空き容量
+	// (交差点サイトと、その交差点から伸びる道路サイトの空きスロット数の合計。
+	// 車の出し入れのたびに更新する)
+	private final SpawnIndex spawnIndex;
+	private final int[] freeByIsec;
+	// サイトを所有する交差点の番号
+	private final int[] siteIsec;
+	// 直前のupdate()で、空きがなくて発生させられなかった台数
+	private int lastUnspawned;
+
+	// 空いている車番号のスタック
+	private int[] freeIds = new int[0];
+	private int freeTop;
+	// まだ使っていない最小の車番号
+	private int nextId;
+
+	/**
+	 * コンストラクタ。GradualFieldと同じネットワークを作成する
+	 * (全ての要素が1ならFieldと同じネットワークになる)
+	 *
+	 * @param rc   中心半径
+	 * @param numX 放射道路の本数
+	 * @param numY 各環状道路の車線数(内側から;int配列)
+	 * @param dY   環状道路の1区間の長さ
+	 */
+	public LatticeField(int rc, int numX, int[] numY, int dY) {
+		this(rc, numX, numY.length, dY, gradualRoads(rc, numX, numY, dY, false),
+				gradualRoads(rc, numX, numY, dY, true), null);
+	}
+
+	/**
+	 * コンストラクタ。既存のFieldのネットワークと、その時点の車の配置をコピーする。
+	 * 交差点は全てRoundaboutでなければならず、DynamicRouterは使えない。
+	 * 交差点サイトの容量はRoundaboutの容量をそのまま使う。
+	 *
+	 * @param field コピー元のField
+	 */
+	public LatticeField(Field field) {
+		this(field.rc, field.numX, field.numY, field.dY, fieldRoads(field, false),
+				fieldRoads(field, true), fieldCapacities(field));
+
+		// 車の配置をコピーする(道路サイトはキューの先頭から順に)
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY; y++) {
+				Roundabout is = (Roundabout) field.getIntersection(x, y);
+				for (int isec = 0; isec < 4; isec++) {
+					RoadSite slot = is.siteAt(isec);
+					for (int j = 0; j < slot.size(); j++) {
+						copyCar(slot.get(j), siteOf(x, y, isec, 0));
+					}
+					Road road = is.roads[isec];
+					for (int step = 1; step <= is.lengthAt(isec); step++) {
+						int s = siteOf(x, y, isec, step);
+						if (road instanceof SingleRoad) {
+							Car car = ((SingleRoad) road).road[step - 1];
+							if (car != null) copyCar(car, s);
+						} else {
+							RoadSite site = ((MultipleRoad) road).siteAt(step);
+							for (int j = 0; j < site.size(); j++) {
+								copyCar(site.get(j), s);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 道路の長さと車線数を指定してネットワークを作成する
+	 *
+	 * @param roadLen   道路 r = (x*numY + y)*4 + isec の長さ
+	 * @param roadLanes 同じく車線数
+	 */
+	// isecLanes は交差点ごとの交差点サイト1つあたりの容量(nullなら接続する道路の車線数の最大値)
+	private LatticeField(int rc, int numX, int numY, int dY, int[] roadLen, int[] roadLanes,
+			int[] isecLanes) {
+		this.rc = rc;
+		this.numX = numX;
+		this.numY = numY;
+		this.dY = dY;
+		this.dX = new int[numY];
+		for (int y = 0; y < numY; y++) {
+			dX[y] = roadLen[y * 4];
+		}
+		this.roadLen = roadLen;
+		this.roadLanes = roadLanes;
+
+		int numIsec = numX * numY;
+		roadSite0 = new int[numIsec * 4];
+		exitReady = new int[numIsec * 4];
+		inStart = new int[numIsec + 1];
+		inRoad = new int[numIsec * 4];
+		inSlot = new int[numIsec * 4];
+		int numSites = numIsec * 4;
+		for (int r = 0; r < roadLen.length; r++) {
+			roadSite0[r] = numSites;
+			numSites += roadLen[r];
+		}
+		cap = new byte[numSites];
+		cnt = new byte[numSites];
+		head = new byte[numSites];
+		slotBase = new int[numSites];
+		build(isecLanes);
+
+		int numSlots = 0;
+		for (int s = 0; s < numSites; s++) {
+			slotBase[s] = numSlots;
+			numSlots += cap[s];
+		}
+		siteCount = numSlots;
+		slots = new int[numSlots];
+		Arrays.fill(slots, -1);
+
+		spawnIndex = new SpawnIndex(numIsec);
+		freeByIsec = new int[numIsec];
+		siteIsec = new int[numSites];
+		for (int r = 0; r < numIsec * 4; r++) {
+			int k = r / 4;
+			siteIsec[r] = k;
+			freeByIsec[k] += cap[r];
+			for (int s = roadSite0[r]; s < roadSite0[r] + roadLen[r]; s++) {
+				siteIsec[s] = k;
+				freeByIsec[k] += cap[s];
+			}
+		}
+
+		roadBit0 = new int[numIsec * 4];
+		siteBit = new int[numSites];
+		Arrays.fill(siteBit, -1);
+		int numBits = 0;
+		for (int r = 0; r < roadLen.length; r++) {
+			if (roadLen[r] > 0 && roadLanes[r] == 1) {
+				roadBit0[r] = numBits;
+				for (int step = 0; step < roadLen[r]; step++) {
+					siteBit[roadSite0[r] + step] = numBits + step;
+				}
+				numBits += (roadLen[r] + 63) & ~63;
+			} else {
+				roadBit0[r] = -1;
+			}
+		}
+		occupied = new long[numBits >>> 6];
+	}
+
+	// GradualFieldと同じ道路の長さ(lanes == false)または車線数(lanes == true)
+	private static int[] gradualRoads(int rc, int numX, int[] numY, int dY, boolean lanes) {
+		int[] a = new int[numX * numY.length * 4];
+		for (int x = 0; x < numX; x++) {
+			for (int y = 0; y < numY.length; y++) {
+				int r = (x * numY.length + y) * 4;
+				if (lanes) {
+					a[r]     = numY[y];
+					a[r + 1] = (y == 0 ? 1 : numY[y - 1]);
+					a[r + 2] = numY[y];
+					a[r + 3] = numY[y];
+				} else {
+					int n02 = (int) Math.round((rc + (dY * y)) * 2 * Math.PI / numX);
+					a[r]     = n02;
+					a[r + 1] = (y == 0 ? 0 : dY);
+					a[r + 2] = n02;
+					a[r + 3] = (y == numY.length - 1 ? 0 : dY);
+				}
+			}
+		}
+		return a;
+	}
+
+	// Fieldの道路の長さ(lanes == false)または車線数(lanes == true)
+	private static int[] fieldRoads(Field field, boolean lanes) {
+		// 経路はRouteの固定経路として配列に展開するので、交差点ごとに経路を決め直すFieldは扱えない
+		if (field.getRouter() != null)
+			throw new IllegalArgumentException("DynamicRouterを使うFieldはコピーできません");
+		int[] a = new int[field.numX * field.numY * 4];
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				Intersection is = field.getIntersection(x, y);
+				if (!(is instanceof Roundabout))
+					throw new IllegalArgumentException("Roundabout以外の交差点はコピーできません");
+				for (int isec = 0; isec < 4; isec++) {
+					int r = (x * field.numY + y) * 4 + isec;
+					if (!lanes)
+						a[r] = is.lengthAt(isec);
+					else
+						a[r] = (is.lengthAt(isec) == 0 ? 1 : is.roads[isec].lanes());
+				}
+			}
+		}
+		return a;
+	}
+
+	// FieldのRoundaboutの交差点サイト1つあたりの容量
+	// (Roundaboutであることは fieldRoads で確かめてある)
+	private static int[] fieldCapacities(Field field) {
+		int[] a = new int[field.numX * field.numY];
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				a[x * field.numY + y] = ((Roundabout) field.getIntersection(x, y)).lanes();
+			}
+		}
+		return a;
+	}
+
+	// 容量とCSR形式の隣接関係を設定する
+	private void build(int[] isecLanes) {
+		int e = 0;
+		for (int k = 0; k < numX * numY; k++) {
+			int x = k / numY;
+			int y = k % numY;
+			inStart[k] = e;
+			// 交差点サイトの容量は、指定がなければ接続する道路の車線数の最大値(Roundaboutと同じ)
+			int lanes = 1;
+			if (isecLanes != null) {
+				lanes = isecLanes[k];
+			} else {
+				for (int i = 0; i < 4; i++) {
+					if (roadLen[k * 4 + i] > 0) lanes = Math.max(lanes, roadLanes[k * 4 + i]);
+				}
+			}
+			for (int i = 0; i < 4; i++) {
+				cap[k * 4 + i] = (byte) lanes;
+
+				int r = k * 4 + i;
+				for (int step = 0; step < roadLen[r]; step++) {
+					cap[roadSite0[r] + step] = (byte) roadLanes[r];
+				}
+
+				// 交差点番号 i に入ってくるのは、neighbor(prev) の交差点番号 next の道路
+				int prev = (i + 3) % 4;
+				int next = (i + 1) % 4;
+				int nk = neighbor(x, y, prev);
+				if (nk >= 0 && roadLen[nk * 4 + next] > 0) {
+					inRoad[e] = nk * 4 + next;
+					inSlot[e] = i;
+					e++;
+				}
+			}
+		}
+		inStart[numX * numY] = e;
+	}
+
+	// 交差点(x, y)の交差点番号isecの先に接続する交差点の番号(なければ -1)
+	private int neighbor(int x, int y, int isec) {
+		switch (isec) {
+		case 0:
+			return (x == 0 ? numX - 1 : x - 1) * numY + y;
+		case 1:
+			return (y == 0 ? -1 : x * numY + y - 1);
+		case 2:
+			return (x == numX - 1 ? 0 : x + 1) * numY + y;
+		default:
+			return (y == numY - 1 ? -1 : x * numY + y + 1);
+		}
+	}
+
+	// 位置(x, y, isec, step)のサイト番号
+	private int siteOf(int x, int y, int isec, int step) {
+		int r = (x * numY + y) * 4 + isec;
+		return (step == 0 ? r : roadSite0[r] + step - 1);
+	}
+
+	/**
+	 * 1ステップごとに確率的に発生させる車の台数を設定する。
+	 *
+	 * @param prob 1ステップに発生させる車の台数
+	 */
+	public void setSpawnProbability(double prob) {
+		spawnProb = prob;
+	}
+
+	/**
+	 * 乱数の種を設定する。
+	 *
+	 * @param seed 乱数の種
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	/**
+	 * 1車線道路の内部アップデートにビット並列カーネルを使うかどうかを設定する。
+	 * 使わない場合は1サイトずつ処理する。結果はどちらでも同じ。
+	 *
+	 * @param on 使うならtrue(デフォルト)
+	 */
+	public void setBitKernel(boolean on) {
+		bitKernel = on;
+	}
+
+	/** 密度を取得する */
+	public double getDensity() {
+		return ((double) carCount) / siteCount;
+	}
+
+	/**
+	 * 指定した位置のサイトに入っている車の台数を取得する
+	 */
+	public int numCarsByPosition(int x, int y, int isec, int step) {
+		return cnt[siteOf(x, y, isec, step)];
+	}
+
+	//====================
+	// サイトのリングバッファ操作
+	//====================
+
+	// サイトsの末尾に車cを入れる
+	private void push(int s, int c) {
+		int j = head[s] + cnt[s];
+		if (j >= cap[s]) j -= cap[s];
+		slots[slotBase[s] + j] = c;
+		cnt[s]++;
+		freeByIsec[siteIsec[s]]--;
+		pos[c] = s;
+		int b = siteBit[s];
+		if (b >= 0) occupied[b >>> 6] |= 1L << b;
+	}
+
+	// サイトsの先頭の車を取り出す
+	private int pop(int s) {
+		int h = head[s];
+		int c = slots[slotBase[s] + h];
+		slots[slotBase[s] + h] = -1;
+		head[s] = (byte) (h + 1 == cap[s] ? 0 : h + 1);
+		cnt[s]--;
+		freeByIsec[siteIsec[s]]++;
+		int b = siteBit[s];
+		if (b >= 0) occupied[b >>> 6] &= ~(1L << b);
+		return c;
+	}
+
+	// サイトsの先頭からj番目の車
+	private int slotAt(int s, int j) {
+		int jj = head[s] + j;
+		if (jj >= cap[s]) jj -= cap[s];
+		return slots[slotBase[s] + jj];
+	}
+
+	// サイトsから車cを取り除き、後ろの車を詰める
+	private void remove(int s, int c) {
+		int base = slotBase[s];
+		int n = cnt[s];
+		int j = head[s];
+		int found = -1;
+		for (int i = 0; i < n; i++) {
+			int jj = (j + i) % cap[s];
+			if (found < 0) {
+				if (slots[base + jj] == c) found = i;
+			} else {
+				slots[base + (j + i - 1) % cap[s]] = slots[base + jj];
+			}
+		}
+		if (found < 0)
+			throw new IllegalStateException("車 " + c + " はサイト " + s + " にいません");
+		slots[base + (j + n - 1) % cap[s]] = -1;
+		cnt[s]--;
+		freeByIsec[siteIsec[s]]++;
+		int b = siteBit[s];
+		if (b >= 0 && cnt[s] == 0) occupied[b >>> 6] &= ~(1L << b);
+	}
+
+	//====================
+	// 車の発生と経路
+	//====================
+
+	// 空き番号を使って車を登録する
+	private int newCar() {
+		int c;
+		if (freeTop > 0) {
+			c = freeIds[--freeTop];
+		} else {
+			c = nextId++;
+			if (c == pos.length) {
+				int n = Math.max(16, pos.length * 2);
+				pos = Arrays.copyOf(pos, n);
+				dest = Arrays.copyOf(dest, n);
+				route = Arrays.copyOf(route, n);
+				routeStep = Arrays.copyOf(routeStep, n);
+				freeIds = Arrays.copyOf(freeIds, n);
+			}
+		}
+		carCount++;
+		return c;
+	}
+
+	// 車を消滅させ、番号を解放する
+	private void deleteCar(int c) {
+		pos[c] = -1;
+		freeIds[freeTop++] = c;
+		carCount--;
+	}
+
+	// Fieldの車をサイトsにコピーする
+	private void copyCar(Car car, int s) {
+		int c = newCar();
+		int[] o = car.getOrigin();
+		int[] d = car.getDestination();
+		dest[c] = siteOf(d[0], d[1], d[2], d[3]);
+		setRoute(c, o[0], o[1], o[2], o[3], d[0], d[1], d[2], d[3]);
+		routeStep[c] = car.getRouteStep();
+		push(s, c);
+	}
+
+	/**
+	 * サイト(x, y, isec, step)に車の発生を試みる
+	 *
+	 * @return 発生できたかどうか
+	 */
+	private boolean trySpawn(int x, int y, int isec, int step) {
+		int s = siteOf(x, y, isec, step);
+		if (cnt[s] == cap[s]) return false;
+
+		int c = newCar();
+		// 目的地をランダムに決定する(出発地と完全に一致した場合は抽選し直し)
+		int rx, ry, ri, rs;
+		do {
+			rx = random.nextInt(numX);
+			ry = random.nextInt(numY);
+			ri = random.nextInt(4);
+			rs = random.nextInt(roadLen[(rx * numY + ry) * 4 + ri] + 1);
+		} while (rx == x && ry == y && ri == isec && rs == step);
+		dest[c] = siteOf(rx, ry, ri, rs);
+		setRoute(c, x, y, isec, step, rx, ry, ri, rs);
+		routeStep[c] = 0;
+		push(s, c);
+		return true;
+	}
+
+	/**
+	 * 車cの経路を決定する。経路のルールはCarと同じ。
+	 */
+	private void setRoute(int c, int ox, int oy, int oi, int os, int dx, int dy, int di, int ds) {
+		// 特例: 同じ道路サイト内の場合(交差点サイトを全く通らない場合)
+		if (ox == dx && oy == dy && oi == di && os > 0 && os < ds) {
+			route[c] = Route.SAME_ROAD;
+			return;
+		}
+
+		// 出発して1番目に通る交差点
+		int k = (os == 0 ? ox * numY + oy : neighbor(ox, oy, oi));
+		route[c] = Route.compute(numX, k / numY, k % numY, dx, dy, di);
+	}
+
+	// 車cが今いる(または次に入る)交差点で抜ける交差点番号
+	private int outIsec(int c) {
+		return Route.outIsec(route[c], routeStep[c]);
+	}
+
+	/**
+	 * n台の車を発生させる。
+	 * 発生させる位置は、全サイトの空きスロットの中から一様に選ぶ(Fieldと同じ)。
+	 * 空きスロットがなくなった場合は例外を投げる。
+	 *
+	 * @param n 発生させる車の台数
+	 */
+	public void createCars(int n) {
+		if (spawn(n) < n) throw new RuntimeException("車を発生できません。");
+	}
+
+	// 空きスロットがある限り、最大n台の車を発生させ、発生させた台数を返す
+	private int spawn(int n) {
+		spawnIndex.build(freeByIsec);
+
+		for (int i = 0; i < n; i++) {
+			// 全ての空きスロットの中から一様に1つ選ぶ
+			// (freeByIsec は発生させた車の分だけ減るので、索引だけを別に減らす)
+			if (spawnIndex.total() == 0) return i;
+			int k = spawnIndex.find(random.nextInt(spawnIndex.total()));
+			spawnAt(k, spawnIndex.remainder());
+			spawnIndex.add(k, -1);
+		}
+		return n;
+	}
+
+	// 交差点kの空きスロットのうちi番目に車を発生させる
+	// (Roundabout.spawnAtと同じく、交差点サイト0〜3、道路サイト0〜3の順に数える)
+	private void spawnAt(int k, int i) {
+		int x = k / numY;
+		int y = k % numY;
+		for (int isec = 0; isec < 4; isec++) {
+			int s = k * 4 + isec;
+			int empty = cap[s] - cnt[s];
+			if (i < empty) {
+				trySpawn(x, y, isec, 0);
+				return;
+			}
+			i -= empty;
+		}
+		for (int isec = 0; isec < 4; isec++) {
+			int r = k * 4 + isec;
+			for (int step = 1; step <= roadLen[r]; step++) {
+				int s = roadSite0[r] + step - 1;
+				int empty = cap[s] - cnt[s];
+				if (i < empty) {
+					trySpawn(x, y, isec, step);
+					return;
+				}
+				i -= empty;
+			}
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + i);
+	}
+
+	/**
+	 * 初期状態を、初期密度を指定して設定する。ランダムな位置に車を配置する
+	 *
+	 * @param dens 初期密度(0.0 <= dens <= 1.0)
+	 */
+	public void initialize(double dens) {
+		createCars((int) (dens * siteCount));
+	}
+
+	//====================
+	// 更新
+	//====================
+
+	/**
+	 * 系を1ステップ更新する。
+	 * 全てのサイトが埋まっていて車を発生させられない場合も例外は投げず、
+	 * 発生させられなかった台数を getUnspawned() で返す。
+	 *
+	 * @return 動いた車の台数
+	 */
+	public int update() {
+		// Phase 0: 車が目的地に到着しているか調べて消滅させる
+		for (int c = 0; c < nextId; c++) {
+			if (pos[c] >= 0 && pos[c] == dest[c]) {
+				remove(pos[c], c);
+				deleteCar(c);
+			}
+		}
+
+		int moved = 0;
+		int numIsec = numX * numY;
+		// Phase 1: 全ての道路サイトの内部アップデートを行なう
+		for (int r = 0; r < roadLen.length; r++) {
+			if (roadLen[r] == 0) continue;
+			if (bitKernel && roadBit0[r] >= 0)
+				moved += updateRoadBits(r);
+			else
+				moved += updateRoad(r);
+		}
+		// Phase 2: 交差点から道路サイトへ抜ける車を移動させる
+		for (int k = 0; k < numIsec; k++) {
+			moved += updateExit(k);
+		}
+		// Phase 3: 交差点を回る車を移動させる
+		for (int k = 0; k < numIsec; k++) {
+			moved += updateIntersection(k);
+		}
+		// Phase 4: 道路サイトから交差点へ入る車を移動させる
+		for (int k = 0; k < numIsec; k++) {
+			moved += updateEnter(k);
+		}
+
+		// 場合によっては車を発生(空きがなければ発生させられるだけ発生させる)
+		int n = (int) spawnProb + (random.nextDouble() < (spawnProb % 1) ? 1 : 0);
+		lastUnspawned = (n > 0 ? n - spawn(n) : 0);
+
+		return moved;
+	}
+
+	/**
+	 * 直前のupdate()で、全てのサイトが埋まっていて発生させられなかった車の台数
+	 */
+	public int getUnspawned() {
+		return lastUnspawned;
+	}
+
+	// 道路rの内部サイトを、更新前の空き容量の分だけ先頭側から順に前へ進める
+	private int updateRoad(int r) {
+		int s0 = roadSite0[r];
+		int last = s0 + roadLen[r] - 1;
+		int moved = 0;
+
+		int lastCount = cnt[last];
+		int empty = cap[last] - cnt[last];
+		for (int s = last; s > s0; s--) {
+			int e = empty;
+			empty = cap[s - 1] - cnt[s - 1];
+			int n = Math.min(e, cnt[s - 1]);
+			for (int j = 0; j < n; j++) {
+				push(s, pop(s - 1));
+			}
+			moved += n;
+		}
+
+		if (roadLanes[r] == 1) {
+			// 1車線道路は、この回で出口に到着した車だけを交差点へ移動させない
+			exitReady[r] = (lastCount == 0 && cnt[last] == 1 ? 0 : 1);
+		} else {
+			// 複数車線道路は、この回の最初から出口にいた車だけを交差点へ移動させる
+			exitReady[r] = lastCount;
+		}
+		return moved;
+	}
+
+	// 1車線道路rの内部サイトを、占有ビット列の上で64サイト分ずつ前へ進める
+	// (次のサイトが空いている車が1つ進む。updateRoadと同じ結果になる)
+	private int updateRoadBits(int r) {
+		int len = roadLen[r];
+		int w0 = roadBit0[r] >>> 6;
+		int w1 = w0 + ((len + 63) >>> 6);
+		int last = len - 1;
+		int s0 = roadSite0[r];
+		// 1車線道路のサイトは容量1なので、スロットの位置はサイトの位置と並ぶ
+		int b0 = slotBase[s0];
+		int moved = 0;
+		boolean lastMoved = false;
+
+		long carry = 0; // 前のワードの最上位ビットから繰り上がってくる車
+		for (int w = w0; w < w1; w++) {
+			// 末尾のサイトの車は交差点へ出るので、ここでは動かさない
+			long movers = SiteMask.advance(occupied, w, w1, (w == w0 + (last >>> 6) ? 1L << last : 0), carry);
+			carry = movers >>> 63;
+			if (movers == 0) continue;
+
+			moved += Long.bitCount(movers);
+			int base = (w - w0) << 6;
+			for (long m = movers; m != 0; m &= m - 1) {
+				int i = base + Long.numberOfTrailingZeros(m);
+				int c = slots[b0 + i];
+				slots[b0 + i] = -1;
+				slots[b0 + i + 1] = c;
+				cnt[s0 + i] = 0;
+				cnt[s0 + i + 1] = 1;
+				pos[c] = s0 + i + 1;
+				if (i == last - 1) lastMoved = true;
+			}
+		}
+
+		// この回で出口に到着した車だけを交差点へ移動させない
+		exitReady[r] = (lastMoved ? 0 : 1);
+		return moved;
+	}
+
+	// 交差点kから道路サイトへ抜ける車を、キューの先頭から順に道路の入口が空いている限り移動させる
+	private int updateExit(int k) {
+		int moved = 0;
+		for (int i = 0; i < 4; i++) {
+			int s = k * 4 + i;
+			// 交差点番号 i の交差点サイトと道路は同じ番号 k*4 + i
+			int s0 = roadSite0[s];
+			for (int j = 0; j < cnt[s]; ) {
+				int c = slotAt(s, j);
+				if (outIsec(c) != i || pos[c] == dest[c]) {
+					j++;
+				} else if (cnt[s0] < cap[s0]) {
+					remove(s, c);
+					push(s0, c);
+					routeStep[c]++;
+					moved++;
+				} else {
+					break;
+				}
+			}
+		}
+		return moved;
+	}
+
+	// 交差点kの交差点サイト内にいる車を移動させる
+	private int updateIntersection(int k) {
+		int s = k * 4;
+		if (cnt[s] == cap[s] && cnt[s + 1] == cap[s + 1]
+				&& cnt[s + 2] == cap[s + 2] && cnt[s + 3] == cap[s + 3]) {
+			// 全ての交差点サイトが満杯の場合、各サイトの先頭の車を1台ずつ無条件に次へ動かす
+			int temp = pop(s + 3);
+			for (int i = 3; i > 0; i--) {
+				push(s + i, pop(s + i - 1));
+			}
+			push(s, temp);
+			return 4;
+		}
+
+		// 交差点を回る車を、次の交差点サイトに空きがある分だけキューの先頭から順に動かす
+		int moved = 0;
+		for (int i = 0; i < 4; i++) {
+			int from = s + i;
+			int next = s + (i + 1) % 4;
+			for (int j = 0; j < cnt[from] && cnt[next] < cap[next]; ) {
+				int c = slotAt(from, j);
+				if (outIsec(c) != i) {
+					remove(from, c);
+					push(next, c);
+					moved++;
+				} else {
+					j++;
+				}
+			}
+		}
+		return moved;
+	}
+
+	// 交差点kの交差点サイトに、空きの分だけ入ってくる道路の出口から車を移動させる
+	private int updateEnter(int k) {
+		int moved = 0;
+		for (int e = inStart[k]; e < inStart[k + 1]; e++) {
+			int s = k * 4 + inSlot[e];
+			int r = inRoad[e];
+			int last = roadSite0[r] + roadLen[r] - 1;
+			while (cnt[s] < cap[s] && exitReady[r] > 0 && cnt[last] > 0) {
+				push(s, pop(last));
+				exitReady[r]--;
+				moved++;
+			}
+		}
+		return moved;
+	}
+}
@@ -0,0 +1,37 @@
+package ringroad;
+
+/**
+ * Max-pressure制御
+ *
+ * 最小の青のステップ数が過ぎた後、圧力(流入路に待っている台数から、
+ * 流出路の入口にいる台数を引いたもの)が大きい方の現示を青にする。
+ * 流出路が詰まっている流れには青を出さないので、渋滞の広がりを抑える。
+ * 圧力が等しい場合は現在の現示を続ける。
+ */
+public class MaxPressureController implements SignalController {
+
+	private final int minGreen;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param minGreen 最小の青のステップ数
+	 */
+	public MaxPressureController(int minGreen) {
+		if (minGreen < 1)
+			throw new IllegalArgumentException("minGreen < 1: " + minGreen);
+		this.minGreen = minGreen;
+	}
+
+	@Override
+	public int nextPhase(SignalizedIntersection is) {
+		int phase = is.phase();
+		if (is.elapsed() < minGreen) return phase;
+		return (is.pressure(1 - phase) > is.pressure(phase) ? 1 - phase : phase);
+	}
+
+	@Override
+	public String toString() {
+		return "pressure:" + minGreen;
+	}
+}
@@ -0,0 +1,208 @@
+package ringroad;
+
+/**
+ * 複数車線道路を定義するクラス
+ *
+ */
+public class MultipleRoad extends Road {
+	/*
+	 * 複数車線道路のイメージ
+	 *
+	 *  0 1 2 ...           (n-1)
+	 * ┌┬┬┬┬┬┬┬┬┬┬┐
+	 * ├┼┼┼┼┼┼┼┼┼┼┤
+	 * ├┼┼┼┼┼┼┼┼┼┼┤
+	 * └┴┴┴┴┴┴┴┴┴┴┘
+	 */
+
+	/**
+	 * 道路サイトはCarのキューの配列として表す。
+	 * 道路長は roadSites.length で取得する。
+	 */
+	private RoadSite[] roadSites;
+
+	/**
+	 * 車のいる道路サイトのビットマスク。
+	 * roadSitesの車の台数が変わる時は必ず合わせて更新する。
+	 */
+	private final SiteMask nonEmpty;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX    この道路がある交差点のX座標
+	 * @param thisY    この道路がある交差点のY座標
+	 * @param thisIsec この道路の交差点番号
+	 * @param length   この道路の長さ（交差点サイトを除いたサイト数）
+	 * @param n        車線数
+	 */
+	public MultipleRoad(int thisX, int thisY, int thisIsec, int length, int n) {
+		super(thisX, thisY, thisIsec, length);
+
+		roadSites = new RoadSite[length];
+		for (int i = 0; i < length; i++) {
+			roadSites[i] = new RoadSite(thisX, thisY, thisIsec, i + 1, n);
+		}
+		nonEmpty = new SiteMask(length);
+	}
+
+
+	/**
+	 * 指定された位置にいる車の台数を返す
+	 * @param step 指定するサイト
+	 */
+	public int carsAt(int step) {
+		return roadSites[step - 1].size();
+	}
+
+	@Override
+	public int lanes() {
+		return roadSites[0].capacity();
+	}
+
+	/**
+	 * 指定された位置の道路サイトを返す
+	 * @param step 指定するサイト
+	 */
+	RoadSite siteAt(int step) {
+		return roadSites[step - 1];
+	}
+
+	private int numAlreadyLast; // この更新回で既に先頭にいる車の台数
+
+	/**
+	 * 内部サイトのアップデート
+	 *
+	 * 前進した車の数が返る
+	 */
+	@Override
+	public int updateInternal() {
+		int moved = 0;
+		int length = roadSites.length;
+
+		numAlreadyLast = roadSites[length-1].size();
+		if (count == 0) return 0;
+
+		// 車のいるサイトだけを先頭側から順に辿り、1つ前のサイトの
+		// 更新前の空き容量の分だけ車を移動させる。
+		// 車のいたサイトの更新前の空き容量は、そこから車が出て行く前に取得しておく。
+		// 車のいなかったサイトには、まだ車が入ってきていないので現在の空き容量でよい。
+		int ahead = -1;      // 直前に処理したサイト
+		int aheadEmpty = 0;  // その更新前の空き容量
+		for (int i = nonEmpty.prev(length-1); i >= 0; i = nonEmpty.prev(i-1)) {
+			RoadSite from = roadSites[i];
+			int emptyHere = from.emptySpace();
+			if (i < length-1) {
+				int empty = (ahead == i+1 ? aheadEmpty : roadSites[i+1].emptySpace());
+				int n = from.transferTo(roadSites[i+1], empty);
+				if (n > 0) {
+					nonEmpty.set(i+1);
+					if (from.size() == 0) nonEmpty.clear(i);
+					moved += n;
+				}
+			}
+			ahead = i;
+			aheadEmpty = emptyHere;
+		}
+
+		return moved;
+	}
+
+
+	/**
+	 * 交差点から道路サイトへの車の移動を試みる
+	 */
+	@Override
+	public boolean tryExit(Car car) {
+		if (roadSites[0].emptySpace() > 0) {
+			roadSites[0].enqueue(car);
+			nonEmpty.set(0);
+			car.move(thisX, thisY, thisIsec, 1);
+			count++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * 道路サイトの出口から車を1台取り出す
+	 * (この更新回の最初から出口にいた車だけを取り出す)
+	 */
+	@Override
+	public Car moveFromRoad() {
+		RoadSite last = roadSites[roadSites.length-1];
+		if (numAlreadyLast == 0 || last.size() == 0) return null;
+		numAlreadyLast--;
+		count--;
+		Car car = last.poll();
+		if (last.size() == 0) nonEmpty.clear(roadSites.length-1);
+		return car;
+	}
+
+
+	@Override
+	public Car peekFromRoad() {
+		RoadSite last = roadSites[roadSites.length-1];
+		return (numAlreadyLast == 0 || last.size() == 0 ? null : last.get(0));
+	}
+
+	@Override
+	public int entrySpace() {
+		return roadSites[0].emptySpace();
+	}
+
+
+	/**
+	 * 車の発生を試みる。
+	 */
+	@Override
+	public boolean trySpawn(Field field, int step) {
+		if (roadSites[step - 1].trySpawn(field)) {
+			nonEmpty.set(step - 1);
+			count++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public void spawnAt(Field field, int r) {
+		for (int i = 0; i < roadSites.length; i++) {
+			int empty = roadSites[i].emptySpace();
+			if (r < empty) {
+				trySpawn(field, i + 1);
+				return;
+			}
+			r -= empty;
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + r);
+	}
+
+
+	/**
+	 * 目的地に到着した車を取り除く
+	 */
+	@Override
+	public void despawn(Car car, int step) {
+		if (!roadSites[step - 1].remove(car))
+			throw new RuntimeException("消滅させる車が道路サイトにいません");
+		if (roadSites[step - 1].size() == 0) nonEmpty.clear(step - 1);
+		count--;
+	}
+
+
+	@Override
+	void place(Car car, int step) {
+		roadSites[step - 1].enqueue(car);
+		nonEmpty.set(step - 1);
+		count++;
+	}
+
+	@Override
+	public int getCarOut(int step) {
+		// dummy
+		return -1;
+	}
+}
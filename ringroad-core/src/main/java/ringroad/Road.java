@@ -0,0 +1,128 @@
+package ringroad;
+
+/**
+ * 道路サイトのためのインターフェース(実装上は抽象クラス)
+ *
+ */
+public abstract class Road {
+
+	/**
+	 * この道路がある交差点のX座標
+	 */
+	public final int thisX;
+	/**
+	 * この道路がある交差点のY座標
+	 */
+	public final int thisY;
+	/**
+	 * この道路の交差点番号
+	 */
+	public final int thisIsec;
+	/**
+	 * この道路の長さ（交差点サイトを除いたサイト数）
+	 */
+	public final int length;
+
+	/**
+	 * この道路にいる車の台数
+	 * (道路と交差点の間の移動、発生、消滅の際に各サブクラスが更新する)
+	 */
+	protected int count;
+
+	/**
+	 * コンストラクタ。道路サイトを作成する
+	 *
+	 * @param thisX    この道路がある交差点のX座標
+	 * @param thisY    この道路がある交差点のY座標
+	 * @param thisIsec この道路の交差点番号
+	 * @param length   この道路の長さ（交差点サイトを除いたサイト数）
+	 */
+	public Road(int thisX, int thisY, int thisIsec, int length) {
+		this.thisX = thisX;
+		this.thisY = thisY;
+		this.thisIsec = thisIsec;
+		this.length = length;
+	}
+
+
+	/**
+	 * stepにいる車の台数を返す
+	 */
+	public abstract int carsAt(int step);
+
+	/**
+	 * 車線数(1サイトに入れる車の最大数)を返す
+	 */
+	public abstract int lanes();
+
+	/**
+	 * この道路にいる車の台数を返す
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * この道路の空き容量(車数)を返す
+	 */
+	public int freeSpace() {
+		return length * lanes() - count;
+	}
+
+	/**
+	 * 道路の内部サイトをアップデートするメソッド
+	 */
+	public abstract int updateInternal();
+
+	/**
+	 * 車を発生させることを試みる。
+	 * @param field 発生させる車が属するField
+	 * @param step 道路サイトのステップ番号: step > 0
+	 *             (∵ step == 0 は交差点サイトのため。)
+	 * @return 発生できたかどうか
+	 */
+	public abstract boolean trySpawn(Field field, int step);
+
+	/**
+	 * 道路の入口側から数えてr番目の空きスロットに車を発生させる。
+	 * @param field 発生させる車が属するField
+	 * @param r     0 <= r < freeSpace()
+	 */
+	public abstract void spawnAt(Field field, int r);
+
+	/**
+	 * 道路サイトの入口に車を1台移動することを試みる
+	 */
+	public abstract boolean tryExit(Car car);
+
+	/**
+	 * 道路サイトの出口から車を1台取り出す
+	 * @return 取り出した車(この更新回に移動できる車がなければnull)
+	 */
+	public abstract Car moveFromRoad();
+
+	/**
+	 * moveFromRoad() で次に取り出される車を、取り出さずに返す
+	 * @return 取り出せる車(この更新回に移動できる車がなければnull)
+	 */
+	public abstract Car peekFromRoad();
+
+	/**
+	 * 道路サイトの入口(step = 1)の空き容量(車数)を返す
+	 */
+	public abstract int entrySpace();
+
+	/**
+	 * 目的地に到着した車を道路サイトから取り除く
+	 * @param car  取り除く車
+	 * @param step 車がいる道路サイトのステップ番号
+	 */
+	public abstract void despawn(Car car, int step);
+
+	public abstract int getCarOut(int step);
+
+	/**
+	 * チェックポイントから読み込んだ車を、step番目のサイトの末尾に置く
+	 */
+	abstract void place(Car car, int step);
+}
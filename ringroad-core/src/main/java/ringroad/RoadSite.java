@@ -0,0 +1,166 @@
+package ringroad;
+
+/**
+ * 複数車線道路のための１サイトの車のキュー
+ *
+ */
+public class RoadSite {
+
+	/**
+	 * この道路サイトの位置情報
+	 */
+	protected final int thisX;
+	protected final int thisY;
+	protected final int thisIsec;
+	protected final int thisStep;
+
+	// 容量nMaxの循環配列によるキュー。
+	// 先頭の車は queue[head]、現在の車数は size。
+	protected final Car[] queue;
+	protected int head;
+	protected int size;
+
+	// Queueの容量(最大車数)
+	private final int nMax;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param n キューの容量(N車線分に相当)
+	 */
+	public RoadSite(int thisX, int thisY, int thisIsec, int thisStep, int n) {
+		this.thisX = thisX;
+		this.thisY = thisY;
+		this.thisIsec = thisIsec;
+		this.thisStep = thisStep;
+		nMax = n;
+		queue = new Car[n];
+	}
+
+
+	/**
+	 * 空き容量(車数)を取得する
+	 */
+	public int emptySpace() {
+		return (nMax - size);
+	}
+
+	/**
+	 *  車の台数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * キューの容量(最大車数)
+	 */
+	public int capacity() {
+		return nMax;
+	}
+
+	/**
+	 * キューの先頭からi番目の車を返す
+	 */
+	Car get(int i) {
+		return queue[index(i)];
+	}
+
+	// キューの先頭からi番目の車が入っている配列のインデックス
+	private int index(int i) {
+		int j = head + i;
+		return (j >= nMax ? j - nMax : j);
+	}
+
+	//====================
+	// 車の移動
+	//====================
+
+	/**
+	 *  キューに車を追加する
+	 */
+	public void enqueue(Car car) {
+		if (size == nMax)
+			throw new RuntimeException("Queueが一杯です");
+		queue[index(size)] = car;
+		size++;
+	}
+
+	/**
+	 * キューの先頭の車を取り除く
+	 * @return 取り除いた車
+	 */
+	public Car poll() {
+		if (size == 0)
+			throw new RuntimeException("空のQueueにpollが呼ばれました");
+		Car car = queue[head];
+		queue[head] = null;
+		head = index(1);
+		size--;
+		return car;
+	}
+
+	/**
+	 * キューの先頭から最大max台の車を、隣の道路サイトのキューの末尾へ移す。
+	 * 移った車は移動先の位置に移動する。
+	 *
+	 * @param next 移動先の道路サイト
+	 * @param max  移動できる最大数
+	 * @return 移動した台数
+	 */
+	public int transferTo(RoadSite next, int max) {
+		int n = Math.min(max, Math.min(size, next.emptySpace()));
+		for (int i = 0; i < n; i++) {
+			Car car = poll();
+			next.enqueue(car);
+			car.move(next.thisX, next.thisY, next.thisIsec, next.thisStep);
+		}
+		return n;
+	}
+
+	/**
+	 * キューの先頭からi番目の車を取り除き、後ろの車を詰める
+	 */
+	protected void remove(int i) {
+		for (int j = i; j < size - 1; j++) {
+			queue[index(j)] = queue[index(j + 1)];
+		}
+		queue[index(size - 1)] = null;
+		size--;
+	}
+
+	//====================
+	// 発生と消滅
+	//====================
+
+	/**
+	 *  車の発生を試みる
+	 *
+	 * @param field 発生させる車が属するField
+	 */
+	public boolean trySpawn(Field field) {
+		// キューが満杯でなければ車を発生させる
+		if (size != nMax) {
+			enqueue(new Car(field, thisX, thisY, thisIsec, thisStep));
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+
+	/**
+	 *  指定された車をキューから取り除く(消滅させる車に使う)
+	 *
+	 * @return 取り除いたかどうか
+	 */
+	public boolean remove(Car car) {
+		for (int i = 0; i < size; i++) {
+			if (get(i) == car) {
+				remove(i);
+				return true;
+			}
+		}
+		return false;
+	}
+}
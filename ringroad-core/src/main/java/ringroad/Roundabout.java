@@ -0,0 +1,285 @@
+package ringroad;
+
+/**
+ * ラウンドアバウト交差点を持つ交差点
+ *
+ * 交差点サイトは交差点番号ごとに1つ、容量(車線数)分の車が入るキュー(RoadSite)で、
+ * 容量はデフォルトでは接続する道路の車線数の最大値とする。
+ * 道路への移動・交差点内の移動・道路からの移動は、いずれも1ステップに容量の分まで行なう。
+ * 容量が1の場合は、1車線のラウンドアバウトのルールと同じになる。
+ */
+public class Roundabout extends Intersection {
+
+	// 交差点サイトのデータ
+	private RoadSite[] roundabout;
+
+	// 交差点サイトの容量
+	private final int capacity;
+
+	/**
+	 * 交差点番号isecの交差点サイトを返す
+	 */
+	RoadSite siteAt(int isec) {
+		return roundabout[isec];
+	}
+
+	/**
+	 * 交差点サイト1つあたりの容量(車線数)
+	 */
+	public int lanes() {
+		return capacity;
+	}
+
+	@Override
+	public int capacity() {
+		return 4 * capacity;
+	}
+
+	public int numCarsByPosition(int isec, int step) {
+		if (step == 0)
+			return roundabout[isec].size();
+		else
+			return roads[isec].carsAt(step);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX, thisY : この交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 */
+	public Roundabout(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3) {
+		this(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3, 0);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX, thisY : この交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 * @param capacity : 交差点サイト1つあたりの容量(0なら接続する道路の車線数の最大値)
+	 */
+	public Roundabout(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3, int capacity) {
+		super(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+
+		// この交差点のサイト
+		if (capacity == 0) {
+			capacity = 1;
+			for (int i = 0; i < 4; i++) {
+				if (roads[i] != null) capacity = Math.max(capacity, roads[i].lanes());
+			}
+		}
+		this.capacity = capacity;
+		roundabout = new RoadSite[4];
+		for (int i = 0; i < 4; i++) {
+			roundabout[i] = new RoadSite(thisX, thisY, i, 0, capacity);
+		}
+	}
+
+
+	/**
+	 *  交差点から道路サイトへ抜ける車をアップデートする（自分の交差点内での操作）
+	 *
+	 *  交差点サイトのキューの先頭から順に、この交差点番号で抜ける車を道路の入口が空いている限り移す。
+	 */
+	public int updateExit() {
+		int moved = 0;
+
+		for (int i = 0; i < 4; i++) {
+			RoadSite site = roundabout[i];
+			for (int j = 0; j < site.size(); ) {
+				Car car = site.get(j);
+				if (car.outIsec() != i || car.isDespawn()) {
+					j++;
+				} else if (roads[i].tryExit(car)) {
+					site.remove(j);
+					moved++;
+				} else {
+					break;
+				}
+			}
+		}
+
+		return moved;
+	}
+
+
+	/**
+	 * チェックポイントから読み込んだ車を、交差点番号isecのstep番目のサイトに置く
+	 */
+	void place(Car car, int isec, int step) {
+		if (step > 0) {
+			roads[isec].place(car, step);
+		} else {
+			if (roundabout[isec].emptySpace() == 0)
+				throw new RuntimeException("交差点サイトに既に車がいます");
+			roundabout[isec].enqueue(car);
+		}
+		if (car.isDespawn()) arrive(car);
+	}
+
+	// 直前のupdateIntersection()で、全ての交差点サイトが埋まっていたか
+	private boolean rotating;
+
+	@Override
+	public boolean isRotating() {
+		return rotating;
+	}
+
+	/**
+	 * この交差点の交差点サイト内にいる車をアップデートする。
+	 *
+	 * ルール上、前の段階で交差点から道路へ抜ける車は全て
+	 * 動かしてあるので、この段階で交差点に車がいる場合、
+	 * 考えられるのは次の2通り。
+	 * ・車が交差点を回る場合 (car.isec != isec)
+	 * ・車が道路に抜けたいが、動けなかった場合 (car.isec == isec)
+	 * 後者は動けないので動かさず、前者を動かす。
+	 */
+	public int updateIntersection() {
+		// 特殊ルール：
+		// 2つの交差点と、それらの間の往復車線における全てのサイトに車が詰まるデッドロックが
+		// 発生したため、外に抜けられない交差点内の車はラウンドアバウトを回るルールに変更する
+		boolean flag = true;
+		for (int i = 0; i < 4; i++) {
+			if (roundabout[i].emptySpace() > 0) {
+				flag = false;
+				break;
+			}
+		}
+
+		rotating = flag;
+		if (flag) {
+			// 全ての交差点サイトが満杯の場合、無条件に
+			// （抜けられる場合は前段で抜けているはずなので）各サイトの先頭の車を1台ずつ次へ動かす。
+			Car temp = roundabout[3].poll();
+			for (int i = 3; i > 0; i--) {
+				Car car = roundabout[i - 1].poll();
+				roundabout[i].enqueue(car);
+				car.move(thisX, thisY, i, 0);
+			}
+			roundabout[0].enqueue(temp);
+			temp.move(thisX, thisY, 0, 0);
+			return 4;
+		} else {
+			// 交差点サイトのどこかに空きがあるか、いずれかの車がスタックしている場合、
+			// 交差点を回る車を、前の交差点サイトに空きがある分だけキューの先頭から順に動かす
+			int moved = 0;
+			for (int i = 0; i < 4; i++) {
+				RoadSite site = roundabout[i];
+				RoadSite next = roundabout[(i + 1) % 4];
+				for (int j = 0; j < site.size() && next.emptySpace() > 0; ) {
+					Car car = site.get(j);
+					if (car.outIsec() != i) {
+						site.remove(j);
+						next.enqueue(car);
+						car.move(thisX, thisY, (i + 1) % 4, 0);
+						moved++;
+					} else {
+						j++;
+					}
+				}
+			}
+			return moved;
+		}
+	}
+
+
+	/* 道路サイトからこの交差点サイトへ入る車をアップデートする。
+	 *
+	 * 交差点サイトに空きがある場合、隣接する交差点の指定する交差点番号の道路から
+	 * 空きの分だけ車を取り出す。
+	 */
+	public int updateEnter() {
+		int moved = 0;
+		// 交差点番号 i に接続されているのはneighbors[i]の交差点番号(i+1)%4
+		for (int i = 0; i < 4; i++) {
+			int next = (i + 1) % 4;
+			int prev = (i + 3) % 4;
+			if (neighbors[prev] == null) continue;
+			while (roundabout[i].emptySpace() > 0) {
+				Car car = neighbors[prev].moveFromRoad(next);
+				if (car == null) break;
+				roundabout[i].enqueue(car);
+				car.move(thisX, thisY, i, 0);
+				moved++;
+			}
+		}
+		return moved;
+	}
+
+
+	/**
+	 * 車の発生を試みる
+	 *
+	 * @param field 発生させる車が属するField
+	 */
+	public boolean trySpawn(Field field, int isec, int step) {
+		if (step == 0) {
+			// この交差点の交差点サイトに発生を試みる場合、
+			// そこに空きがあれば発生させる。
+			return roundabout[isec].trySpawn(field);
+		} else {
+			// 道路サイトに発生させる場合、道路サイトのメソッドへ投げる
+			return roads[isec].trySpawn(field, step);
+		}
+	}
+
+	/**
+	 * この交差点の空き容量を返す
+	 */
+	public int freeSpace() {
+		int free = 0;
+		for (int i = 0; i < 4; i++) {
+			free += roundabout[i].emptySpace();
+			if (roads[i] != null) free += roads[i].freeSpace();
+		}
+		return free;
+	}
+
+	/**
+	 * 空きスロットのうちr番目に車を発生させる。
+	 * 交差点サイト0〜3、道路サイト0〜3の順に数える。
+	 */
+	public void spawnAt(Field field, int r) {
+		for (int i = 0; i < 4; i++) {
+			int empty = roundabout[i].emptySpace();
+			if (r < empty) {
+				roundabout[i].trySpawn(field);
+				return;
+			}
+			r -= empty;
+		}
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] == null) continue;
+			int free = roads[i].freeSpace();
+			if (r < free) {
+				roads[i].spawnAt(field, r);
+				return;
+			}
+			r -= free;
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + r);
+	}
+
+	/**
+	 * 交差点番号isecの交差点サイトから、消滅させる車を取り除く
+	 */
+	@Override
+	protected boolean removeFromIntersection(Car car, int isec) {
+		return roundabout[isec].remove(car);
+	}
+
+	public int getCarOut(int isec, int step) {
+		if (step == 0) {
+			return roundabout[isec].get(0).outIsec();
+		} else {
+			return roads[isec].getCarOut(step);
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+package ringroad;
+
+/**
+ * 経路をlong値1つで表すためのメソッド群
+ *
+ * このモデルの経路は、出発して1番目に通る交差点と目的地の交差点、
+ * 目的地の交差点を抜ける交差点番号だけで決まり、次の3つの区間からなる。
+ * 1. 放射道路を上る(中心側へ行く)交差点数 inbound≧0     … 交差点番号1で抜ける
+ * 2. 環状道路を回る交差点数 ±ring (正回りなら正)        … 交差点番号2(正)/0(負)で抜ける
+ * 3. 放射道路を下る(外側へ行く)交差点数 outbound≧0      … 交差点番号3で抜ける
+ * 最後の交差点では exit の交差点番号で抜ける。
+ *
+ * これらを16bitずつ詰めて1つのlong値に格納する。
+ * 各交差点で抜ける交差点番号や通過する交差点の座標は、
+ * 経路の何番目の交差点か(routeStep)から計算する。
+ */
+final class Route {
+
+	/**
+	 * 同じ道路サイト内で目的地に着く(交差点サイトを全く通らない)場合の経路
+	 */
+	static final long SAME_ROAD = of(0, 0, 0, -1);
+
+	private Route() {
+	}
+
+	/**
+	 * 経路を表すlong値を作る
+	 */
+	static long of(int inbound, int ring, int outbound, int exit) {
+		return (inbound & 0xFFFFL)
+				| ((ring & 0xFFFFL) << 16)
+				| ((outbound & 0xFFFFL) << 32)
+				| ((exit & 0xFFFFL) << 48);
+	}
+
+	/** 上り方向の交差点数 */
+	static int inbound(long route) {
+		return (int) (route & 0xFFFF);
+	}
+
+	/** 環状方向の交差点数(正回りなら正、負回りなら負) */
+	static int ring(long route) {
+		return (short) (route >>> 16);
+	}
+
+	/** 下り方向の交差点数 */
+	static int outbound(long route) {
+		return (int) ((route >>> 32) & 0xFFFF);
+	}
+
+	/** 最後の交差点で抜ける交差点番号 */
+	static int exit(long route) {
+		return (short) (route >>> 48);
+	}
+
+	/**
+	 * 経路上で通過する交差点の数(同じ道路サイト内の場合は0)
+	 */
+	static int length(long route) {
+		if (route == SAME_ROAD) return 0;
+		return inbound(route) + Math.abs(ring(route)) + outbound(route) + 1;
+	}
+
+	/**
+	 * 出発して1番目に通る交差点から目的地の交差点までの経路を決定する
+	 *
+	 * @param numX  放射道路の本数
+	 * @param origX 出発して1番目に通る交差点のX座標
+	 * @param origY 同Y座標
+	 * @param destX 目的地に着く前に通る最後の交差点のX座標
+	 * @param destY 同Y座標
+	 * @param exit  最後の交差点を抜ける交差点番号
+	 */
+	static long compute(int numX, int origX, int origY, int destX, int destY, int exit) {
+		// origXとdestXが、中心からの角度が 2rad 以上ある場合、内側を通ったほうが近くなる。
+		// 2rad 未満の場合、外側を通ったほうが近くなる。
+
+		int inbound;	// 上り方向の移動数
+		int ring;		// X方向の移動数(符号付き)
+		int outbound;	// 下り方向の移動数
+
+		// X方向：正回りor負回りを決める
+		if (origX == destX) {
+			// X方向移動なし
+			ring = 0;
+		} else if (origX < destX) {
+			int t = destX - origX;
+			ring = (t <= numX/2 ? t : t-numX);
+		} else /* (origX > destX) の場合 */ {
+			int t = origX - destX;
+			ring = (t <= numX/2 ? -t : numX-t);
+		}
+
+		// 外回りor内回りを決める  (1=外回り=外側指向, 0=内回り=内側指向)
+		int dir;
+		if (2*Math.PI*Math.abs(ring)/numX <= 2/*[rad]*/) {
+			dir = 1; // 2rad未満のとき、外回り
+		} else {
+			dir = 0; // 2rad以上のとき、内回り
+		}
+
+		// inboundを求める
+		if (dir == 0) {
+			// 内回りの場合
+			inbound = origY;
+		} else if (origY > destY) {
+			// 外回りで目的地のほうが内側にある場合
+			inbound = origY - destY;
+		} else {
+			inbound = 0;
+		}
+
+		// outboundを求める
+		if (dir == 0) {
+			// 内回りの場合
+			outbound = destY;
+		} else if (origY < destY) {
+			// 外回りで目的地のほうが外側にある場合
+			outbound = destY - origY;
+		} else {
+			outbound = 0;
+		}
+
+		return of(inbound, ring, outbound, exit);
+	}
+
+	/**
+	 * 経路上のstep番目の交差点で抜ける交差点番号を返す(経路の外では -1)
+	 */
+	static int outIsec(long route, int step) {
+		int in = inbound(route);
+		if (step < in) return 1; // 上り方向
+		step -= in;
+		int ring = ring(route);
+		int abs = (ring < 0 ? -ring : ring);
+		if (step < abs) return (ring > 0 ? 2 : 0); // 正回りor負回り
+		step -= abs;
+		int out = outbound(route);
+		if (step < out) return 3; // 下り方向
+		if (step == out) return exit(route);
+		return -1;
+	}
+
+	/**
+	 * 経路上のstep番目の交差点のX座標を返す
+	 *
+	 * @param x0 出発して1番目に通る交差点のX座標
+	 */
+	static int x(long route, int x0, int step, int numX) {
+		int ring = ring(route);
+		int k = Math.min(Math.max(step - inbound(route), 0), Math.abs(ring));
+		int x = x0 + (ring > 0 ? k : -k);
+		return ((x % numX) + numX) % numX;
+	}
+
+	/**
+	 * 経路上のstep番目の交差点のY座標を返す
+	 *
+	 * @param y0 出発して1番目に通る交差点のY座標
+	 */
+	static int y(long route, int y0, int step) {
+		int in = inbound(route);
+		if (step <= in) return y0 - step;
+		int k = step - in - Math.abs(ring(route));
+		return y0 - in + Math.max(k, 0);
+	}
+}
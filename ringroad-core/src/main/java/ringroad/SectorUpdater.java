@@ -0,0 +1,167 @@
+package ringroad;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Field.update()の各フェーズを、X方向(角度方向)のセクタに分割して
+ * 複数のスレッドで実行するクラス
+ *
+ * セクタ w は x の範囲 [numX*w/n, numX*(w+1)/n) の交差点を受け持つ。
+ * セクタ0は update() を呼び出したスレッドが、それ以外は専用のワーカスレッドが実行し、
+ * フェーズごとにバリアで全スレッドの同期をとる。
+ * 各フェーズで操作してよいサイトについては Field.updatePhase() を参照。
+ */
+class SectorUpdater {
+
+	private final Field field;
+
+	// セクタ数(=スレッド数)
+	private final int n;
+
+	// セクタ w の範囲は xFrom[w] <= x < xFrom[w+1]
+	private final int[] xFrom;
+
+	// セクタごと・フェーズごとの結果(台数)
+	private final int[][] results;
+
+	// 各フェーズの開始と終了の同期をとるバリア
+	private final CyclicBarrier barrier;
+
+	private final Thread[] workers;
+
+	// ワーカで発生した最初の例外
+	private volatile RuntimeException failure;
+
+	private volatile boolean running = true;
+
+	/**
+	 * コンストラクタ。ワーカスレッドを起動する
+	 *
+	 * @param field 更新するField
+	 * @param n     セクタ数(2 <= n <= field.numX)
+	 */
+	SectorUpdater(Field field, int n) {
+		this.field = field;
+		this.n = n;
+
+		xFrom = new int[n + 1];
+		for (int w = 0; w <= n; w++) {
+			xFrom[w] = field.numX * w / n;
+		}
+		results = new int[n][Field.NUM_PHASES];
+		barrier = new CyclicBarrier(n);
+
+		workers = new Thread[n - 1];
+		for (int w = 1; w < n; w++) {
+			final int sector = w;
+			workers[w - 1] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					work(sector);
+				}
+			}, "ringroad-sector-" + w);
+			// シミュレーションが終わればJVMを終了できるようにする
+			workers[w - 1].setDaemon(true);
+			workers[w - 1].start();
+		}
+	}
+
+	/**
+	 * 全てのセクタについて Phase 0〜4 を実行する。
+	 * 呼び出したスレッドはセクタ0を受け持つ。
+	 */
+	void update() {
+		// ワーカにステップの開始を知らせる
+		await();
+		step(0);
+		if (failure != null) {
+			RuntimeException e = failure;
+			failure = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * 直前の update() で消滅させた台数
+	 */
+	int deleted() {
+		return sum(Field.PHASE_DESPAWN);
+	}
+
+	/**
+	 * 直前の update() で動いた台数
+	 */
+	int moved() {
+		int moved = 0;
+		for (int phase = Field.PHASE_ROAD_SITES; phase < Field.NUM_PHASES; phase++) {
+			moved += sum(phase);
+		}
+		return moved;
+	}
+
+	/**
+	 * ワーカスレッドを停止し、終了するまで待つ
+	 */
+	void shutdown() {
+		running = false;
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+		try {
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int sum(int phase) {
+		int total = 0;
+		for (int w = 0; w < n; w++) {
+			total += results[w][phase];
+		}
+		return total;
+	}
+
+	// ワーカスレッドの本体
+	private void work(int sector) {
+		try {
+			while (running) {
+				barrier.await();
+				step(sector);
+			}
+		} catch (InterruptedException | BrokenBarrierException e) {
+			// shutdown() による終了
+		} catch (RuntimeException e) {
+			// ステップの途中で shutdown() された場合
+			if (running) throw e;
+		}
+	}
+
+	// 1セクタ分の1ステップ。各フェーズの後に全セクタを待つ
+	private void step(int sector) {
+		for (int phase = 0; phase < Field.NUM_PHASES; phase++) {
+			try {
+				results[sector][phase] = field.updatePhase(phase, xFrom[sector], xFrom[sector + 1]);
+			} catch (RuntimeException e) {
+				// 他のセクタとの同期を崩さないよう、例外は記録だけして後で投げ直す
+				results[sector][phase] = 0;
+				if (failure == null) failure = e;
+			}
+			await();
+		}
+	}
+
+	private void await() {
+		try {
+			barrier.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("更新が中断されました", e);
+		} catch (BrokenBarrierException e) {
+			throw new RuntimeException("更新スレッドの同期に失敗しました", e);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package ringroad;
+
+/**
+ * 信号交差点(SignalizedIntersection)の現示を決める制御方式
+ *
+ * 毎ステップ全ての信号交差点について呼ばれるので、判定は交差点の近傍の
+ * 数サイトを調べるだけの軽い処理にする。状態は交差点の側(現在の現示と経過ステップ数)に
+ * 持たせ、制御方式は状態を持たないので、1つのインスタンスを全ての交差点で共有できる。
+ */
+public interface SignalController {
+
+	/**
+	 * 次のステップの現示を決める
+	 *
+	 * @param is 信号交差点
+	 * @return   現示(SignalizedIntersection.PHASE_RING または PHASE_RADIAL)
+	 */
+	int nextPhase(SignalizedIntersection is);
+}
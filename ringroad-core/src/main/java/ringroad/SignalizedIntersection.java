@@ -0,0 +1,313 @@
+package ringroad;
+
+/**
+ * 信号で流入を制御する交差点
+ *
+ * 現示は2つで、PHASE_RING の間は環状道路(交差点番号0, 2の方向)から、
+ * PHASE_RADIAL の間は放射道路(交差点番号1, 3の方向)から来る車だけが交差点に入れる。
+ * 交差点サイトは抜ける交差点番号ごとに1台分あり、交差点に入った車は
+ * 抜ける交差点番号の交差点サイトで、その道路の入口が空くのを待つ。
+ * 同じ方向へ抜ける車どうし以外は交差点内で競合しないので、Roundaboutのような
+ * 全ての車を回す特殊ルールは要らない。ただし、抜ける道路の入口が詰まっている車は
+ * 青でも交差点に入れない(交差点サイトで止まって、他の流れを妨げないようにする)。
+ *
+ * 現示はSignalControllerが毎ステップ決める(デフォルトは10ステップごとの定周期)。
+ * 制御方式が読むのは、流入路の出口側と流出路の入口側の DETECTOR サイトの車の台数だけである。
+ */
+public class SignalizedIntersection extends Intersection {
+
+	/** 環状道路(交差点番号0, 2の方向)から来る車が入れる現示 */
+	public static final int PHASE_RING = 0;
+	/** 放射道路(交差点番号1, 3の方向)から来る車が入れる現示 */
+	public static final int PHASE_RADIAL = 1;
+
+	/** 待っている台数を数える、流入路の出口側・流出路の入口側のサイト数 */
+	public static final int DETECTOR = 3;
+
+	// デフォルトの制御方式
+	private static final SignalController DEFAULT_CONTROLLER = new FixedTimeController(10);
+
+	// 交差点サイトのデータ(抜ける交差点番号ごとに1台)
+	private Car[] box;
+
+	// 交差点内のフェーズの終わりに、各交差点番号の流出路の入口が空いていたか
+	// (入るフェーズでは長さ1の流出路の出口=入口から隣の交差点が車を取り出すので、
+	// 入れるかどうかはこの値で判定する)
+	private boolean[] exitOpen = new boolean[4];
+
+	// 制御方式と、現在の現示、その現示になってからのステップ数
+	private SignalController controller = DEFAULT_CONTROLLER;
+	private int phase = PHASE_RING;
+	private int elapsed;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param thisX, thisY : この交差点の座標(X, Y)
+	 * @param len0, len1, len2, len3 : 各交差点番号に接続する道路の長さ
+	 * @param n0, n1, n2, n3 : 各交差点番号に接続する道路の車線数
+	 */
+	public SignalizedIntersection(int thisX, int thisY, int len0, int len1, int len2, int len3,
+			int n0, int n1, int n2, int n3) {
+		super(thisX, thisY, len0, len1, len2, len3, n0, n1, n2, n3);
+
+		// この交差点のサイト
+		box = new Car[4];
+	}
+
+	/**
+	 * 制御方式を設定する
+	 */
+	public void setController(SignalController controller) {
+		this.controller = controller;
+	}
+
+	/**
+	 * 現在の現示
+	 */
+	public int phase() {
+		return phase;
+	}
+
+	/**
+	 * 現在の現示になってからのステップ数
+	 */
+	public int elapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * 交差点番号isecの方向から来る流入路の、出口側で待っている車の台数
+	 */
+	public int approachQueue(int isec) {
+		Intersection from = neighbors[isec];
+		if (from == null) return 0;
+		Road road = from.roads[(isec + 2) % 4];
+		int n = 0;
+		for (int step = road.length; step > Math.max(0, road.length - DETECTOR); step--) {
+			n += road.carsAt(step);
+		}
+		return n;
+	}
+
+	/**
+	 * 交差点番号isecの流出路の、入口側にいる車の台数
+	 */
+	public int exitQueue(int isec) {
+		Road road = roads[isec];
+		if (road == null) return 0;
+		int n = 0;
+		for (int step = 1; step <= Math.min(DETECTOR, road.length); step++) {
+			n += road.carsAt(step);
+		}
+		return n;
+	}
+
+	/**
+	 * 現示pで交差点に入れる流入路で待っている車の台数の合計
+	 */
+	public int queue(int p) {
+		return approachQueue(p) + approachQueue(p + 2);
+	}
+
+	/**
+	 * 現示pの圧力
+	 * (現示pの流入路で待っている台数から、それぞれの直進先の流出路の入口にいる台数を引いたもの)
+	 */
+	public int pressure(int p) {
+		return approachQueue(p) - exitQueue(p + 2) + approachQueue(p + 2) - exitQueue(p);
+	}
+
+	public int numCarsByPosition(int isec, int step) {
+		if (step == 0)
+			return (box[isec] == null ? 0 : 1);
+		else
+			return roads[isec].carsAt(step);
+	}
+
+	/**
+	 * 交差点から道路サイトへ抜ける車をアップデートする
+	 */
+	@Override
+	public int updateExit() {
+		int moved = 0;
+		for (int i = 0; i < 4; i++) {
+			if (box[i] != null && box[i].outIsec() == i && !box[i].isDespawn()) {
+				if (roads[i].tryExit(box[i])) {
+					box[i] = null;
+					moved++;
+				}
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * 交差点サイト内の車をアップデートし、次のステップの現示を決める。
+	 *
+	 * 交差点に入った車は初めから抜ける交差点番号の交差点サイトにいるので、
+	 * 動くのは抜ける方向と違う交差点サイトに発生した車だけである。
+	 * 現示の判定で読む流入路・流出路は、このフェーズでは他の交差点から変更されない。
+	 */
+	@Override
+	public int updateIntersection() {
+		int moved = 0;
+		for (int i = 0; i < 4; i++) {
+			if (misplaced(i) && box[box[i].outIsec()] == null) {
+				Car car = box[i];
+				int out = car.outIsec();
+				box[out] = car;
+				box[i] = null;
+				car.move(thisX, thisY, out, 0);
+				moved++;
+			}
+		}
+		// 発生した車どうしが互いの交差点サイトを待って循環している場合は、循環に沿って一斉に動かす
+		for (int i = 0; i < 4; i++) {
+			if (!misplaced(i)) continue;
+			int j = box[i].outIsec();
+			for (int n = 1; j != i && n < 4 && misplaced(j); n++) {
+				j = box[j].outIsec();
+			}
+			if (j != i) continue;
+			Car car = box[i];
+			do {
+				j = car.outIsec();
+				Car next = box[j];
+				box[j] = car;
+				car.move(thisX, thisY, j, 0);
+				moved++;
+				car = next;
+			} while (j != i);
+		}
+
+		for (int i = 0; i < 4; i++) {
+			exitOpen[i] = (roads[i] != null && roads[i].entrySpace() > 0);
+		}
+
+		elapsed++;
+		int next = controller.nextPhase(this);
+		if (next != phase) {
+			phase = next;
+			elapsed = 0;
+		}
+		return moved;
+	}
+
+	// 交差点番号isecの交差点サイトに、抜ける方向と違う交差点サイトに発生した車がいるか
+	private boolean misplaced(int isec) {
+		Car car = box[isec];
+		return car != null && !car.isDespawn() && car.outIsec() != isec;
+	}
+
+	/**
+	 * 道路サイトからこの交差点サイトへ入る車をアップデートする。
+	 *
+	 * 青の流入路の出口にいる車を、抜ける交差点番号の交差点サイトと
+	 * 抜ける道路の入口が空いていれば入れる。
+	 */
+	@Override
+	public int updateEnter() {
+		int moved = 0;
+		// 交差点番号 i の方向から来る車は、neighbors[i]の交差点番号(i+2)%4の道路から入る
+		for (int i = phase; i < 4; i += 2) {
+			if (neighbors[i] == null) continue;
+			int from = (i + 2) % 4;
+			Car car = neighbors[i].peekFromRoad(from);
+			if (car == null) continue;
+			int out = car.outIsec();
+			if (box[out] == null && enterable(car, out)) {
+				neighbors[i].moveFromRoad(from);
+				box[out] = car;
+				car.move(thisX, thisY, out, 0);
+				moved++;
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * 交差点番号outへ抜ける車が交差点に入れるか
+	 * (抜ける道路の入口は、交差点内のフェーズの終わりの状態で判定する。
+	 * この交差点サイトが目的地の車は、抜ける道路の入口が空いていなくても入れる)
+	 */
+	private boolean enterable(Car car, int out) {
+		if (exitOpen[out]) return true;
+		int[] dest = car.getDestination();
+		return dest[0] == thisX && dest[1] == thisY && dest[2] == out && dest[3] == 0;
+	}
+
+	/**
+	 * 車の発生を試みる
+	 *
+	 * @param field 発生させる車が属するField
+	 */
+	@Override
+	public boolean trySpawn(Field field, int isec, int step) {
+		if (step == 0) {
+			if (box[isec] == null) {
+				box[isec] = new Car(field, thisX, thisY, isec, 0);
+				return true;
+			} else {
+				return false;
+			}
+		} else {
+			return roads[isec].trySpawn(field, step);
+		}
+	}
+
+	/**
+	 * この交差点の空き容量を返す
+	 */
+	@Override
+	public int freeSpace() {
+		int free = 0;
+		for (int i = 0; i < 4; i++) {
+			if (box[i] == null) free++;
+			if (roads[i] != null) free += roads[i].freeSpace();
+		}
+		return free;
+	}
+
+	/**
+	 * 空きスロットのうちr番目に車を発生させる。
+	 * 交差点サイト0〜3、道路サイト0〜3の順に数える。
+	 */
+	@Override
+	public void spawnAt(Field field, int r) {
+		for (int i = 0; i < 4; i++) {
+			if (box[i] == null && r-- == 0) {
+				box[i] = new Car(field, thisX, thisY, i, 0);
+				return;
+			}
+		}
+		for (int i = 0; i < 4; i++) {
+			if (roads[i] == null) continue;
+			int free = roads[i].freeSpace();
+			if (r < free) {
+				roads[i].spawnAt(field, r);
+				return;
+			}
+			r -= free;
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + r);
+	}
+
+	/**
+	 * 交差点番号isecの交差点サイトから、消滅させる車を取り除く
+	 */
+	@Override
+	protected boolean removeFromIntersection(Car car, int isec) {
+		if (box[isec] != car) return false;
+		box[isec] = null;
+		return true;
+	}
+
+	public int getCarOut(int isec, int step) {
+		if (step == 0) {
+			return box[isec].outIsec();
+		} else {
+			return roads[isec].getCarOut(step);
+		}
+	}
+}
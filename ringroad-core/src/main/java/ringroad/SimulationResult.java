@@ -0,0 +1,48 @@
+package ringroad;
+
+/**
+ * 1回のシミュレーションの結果
+ */
+public class SimulationResult {
+
+	/**
+	 * シミュレーションの終わり方
+	 */
+	public enum End {
+		/** 全てのサイトが埋まり、車を発生させられなくなった */
+		FULL,
+		/** 車が動かなくなった(交差点内を回るだけの車しかいない) */
+		GRIDLOCK,
+		/** 渋滞せずに最大ステップ数まで実行した */
+		STEP_LIMIT
+	}
+
+	/** 終わり方 */
+	public final End end;
+
+	/** 渋滞と判定したステップ(渋滞しなければ実行したステップ数) */
+	public final int steps;
+
+	/** 最後の密度 */
+	public final double finalDensity;
+
+	/** 平均流量(1ステップ・1サイトあたりの動いた台数) */
+	public final double meanFlow;
+
+	public SimulationResult(End end, int steps, double finalDensity, double meanFlow) {
+		this.end = end;
+		this.steps = steps;
+		this.finalDensity = finalDensity;
+		this.meanFlow = meanFlow;
+	}
+
+	/** 渋滞して終わったかどうか */
+	public boolean isJammed() {
+		return end != End.STEP_LIMIT;
+	}
+
+	@Override
+	public String toString() {
+		return end + " at step " + steps + ", density " + finalDensity + ", flow " + meanFlow;
+	}
+}
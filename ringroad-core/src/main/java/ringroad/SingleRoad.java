@@ -0,0 +1,188 @@
+package ringroad;
+
+/**
+ * 一車線道路を定義するクラス
+ *
+ */
+public class SingleRoad extends Road {
+
+	/*
+	 * 道路サイトはCarの配列として表す。
+	 * インデックスは 0 <= i <= length-1 であり、
+	 * 進行方向にインデックスが増大する。
+	 *
+	 * 道路長は road.length で取得する。
+	 * road[0]がstep=1に対応する。
+	 */
+	public Car[] road;
+
+	/*
+	 * road[i]に車がいるかどうかのビットマスク。
+	 * roadを書き換える時は必ず合わせて更新する。
+	 */
+	private final SiteMask occupied;
+
+	/**
+	 * コンストラクタ。道路サイトを作成する
+	 *
+	 * @param thisX    この道路がある交差点のX座標
+	 * @param thisY    この道路がある交差点のY座標
+	 * @param thisIsec この道路の交差点番号
+	 * @param length   この道路の長さ（交差点サイトを除いたサイト数）
+	 */
+	public SingleRoad(int thisX, int thisY, int thisIsec, int length) {
+		super(thisX, thisY, thisIsec, length);
+		road = new Car[length];
+		occupied = new SiteMask(length);
+	}
+
+	@Override
+	public int carsAt(int step) {
+		return (road[step - 1] == null ? 0 : 1);
+	}
+
+	@Override
+	public int lanes() {
+		return 1;
+	}
+
+
+	// この回で動いて末尾に到達したか
+	private boolean lastMoved;
+
+	/**
+	 * 内部サイトのアップデート
+	 *
+	 * 次のサイトが空いている車を1つ進める(ルール184)。
+	 * 動く車の判定と占有ビットの更新は、ビットマスクの64サイト分を1度に行なう。
+	 * 車の配列は動いた車についてだけ書き換える。
+	 */
+	@Override
+	public int updateInternal() {
+		int moved = 0; // 動いた台数
+
+		lastMoved = false;
+		if (count == 0) return 0;
+
+		long[] words = occupied.words;
+		int n = words.length;
+		int last = road.length - 1;
+		long carry = 0; // 前のワードの最上位ビットから繰り上がってくる車
+		for (int w = 0; w < n; w++) {
+			// 末尾のサイトの車は交差点へ出るので、ここでは動かさない
+			long movers = SiteMask.advance(words, w, n, (w == (last >>> 6) ? 1L << last : 0), carry);
+			carry = movers >>> 63;
+			if (movers == 0) continue;
+
+			moved += Long.bitCount(movers);
+			int base = w << 6;
+			for (long m = movers; m != 0; m &= m - 1) {
+				int i = base + Long.numberOfTrailingZeros(m);
+				road[i+1] = road[i];
+				road[i+1].move(thisX, thisY, thisIsec, i+2); // stepはroadのインデックス
+															 // より1大きいため
+				road[i] = null;
+				if (i == last - 1) lastMoved = true;
+			}
+		}
+		return moved;
+	}
+
+
+	/**
+	 * 交差点から道路サイトへの車の移動を試みる
+	 */
+	@Override
+	public boolean tryExit(Car car) {
+		if (road[0] == null) {
+			// 移動成功
+			road[0] = car;
+			occupied.set(0);
+			road[0].move(thisX, thisY, thisIsec, 1);
+			count++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+
+	/**
+	 * 道路サイトの出口から車を1台取り出す
+	 * (この回で出口に到着した車は取り出さない)
+	 */
+	@Override
+	public Car moveFromRoad() {
+		if (road[length-1] == null || lastMoved) return null;
+		Car car = road[length-1];
+		road[length-1] = null;
+		occupied.clear(length-1);
+		count--;
+		return car;
+	}
+
+
+	@Override
+	public Car peekFromRoad() {
+		return (lastMoved ? null : road[length-1]);
+	}
+
+	@Override
+	public int entrySpace() {
+		return (road[0] == null ? 1 : 0);
+	}
+
+
+	/**
+	 * 車の発生を試みる
+	 */
+	@Override
+	public boolean trySpawn(Field field, int step) {
+		if (road[step - 1] == null) {
+			road[step - 1] = new Car(field, thisX, thisY, thisIsec, step);
+			occupied.set(step - 1);
+			count++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public void spawnAt(Field field, int r) {
+		for (int i = 0; i < road.length; i++) {
+			if (road[i] == null && r-- == 0) {
+				trySpawn(field, i + 1);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("空きスロットがありません: " + r);
+	}
+
+	/**
+	 * 目的地に到着した車を取り除く
+	 */
+	@Override
+	public void despawn(Car car, int step) {
+		if (road[step - 1] != car)
+			throw new RuntimeException("消滅させる車が道路サイトにいません");
+		road[step - 1] = null;
+		occupied.clear(step - 1);
+		count--;
+	}
+
+	@Override
+	void place(Car car, int step) {
+		if (road[step - 1] != null)
+			throw new RuntimeException("道路サイトに既に車がいます");
+		road[step - 1] = car;
+		occupied.set(step - 1);
+		count++;
+	}
+
+	@Override
+	public int getCarOut(int step) {
+		if (road[step-1] == null) throw new RuntimeException("Something happen");
+		return road[step-1].outIsec();
+	}
+}
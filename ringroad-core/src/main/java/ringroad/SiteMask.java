@@ -0,0 +1,110 @@
+package ringroad;
+
+/**
+ * 道路サイトに車がいるかどうかを1サイト1bitで表すビットマスク
+ *
+ * サイトiはwords[i / 64]の第(i % 64)ビットに対応する。
+ * 車のいるサイトだけを順に辿るために使う。
+ */
+class SiteMask {
+
+	/**
+	 * ビット列本体
+	 */
+	final long[] words;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param n サイト数
+	 */
+	SiteMask(int n) {
+		words = new long[(n + 63) >>> 6];
+	}
+
+	/**
+	 * サイトiに車がいるかどうか
+	 */
+	boolean get(int i) {
+		return (words[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * サイトiに車がいることを記録する
+	 */
+	void set(int i) {
+		words[i >>> 6] |= (1L << i);
+	}
+
+	/**
+	 * サイトiに車がいないことを記録する
+	 */
+	void clear(int i) {
+		words[i >>> 6] &= ~(1L << i);
+	}
+
+	/**
+	 * サイトiに車がいるかどうかを記録する
+	 */
+	void set(int i, boolean occupied) {
+		if (occupied)
+			set(i);
+		else
+			clear(i);
+	}
+
+	/**
+	 * サイトfrom以降で最初に車がいるサイトを返す(なければ -1)
+	 */
+	int next(int from) {
+		int w = from >>> 6;
+		if (w >= words.length) return -1;
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0)
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			if (++w == words.length)
+				return -1;
+			word = words[w];
+		}
+	}
+
+	/**
+	 * サイトfrom以前で最後に車がいるサイトを返す(なければ -1)
+	 */
+	int prev(int from) {
+		if (from < 0) return -1;
+		int w = from >>> 6;
+		long word = words[w] & (-1L >>> (63 - (from & 63)));
+		while (true) {
+			if (word != 0)
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+			if (w-- == 0)
+				return -1;
+			word = words[w];
+		}
+	}
+
+	/**
+	 * 1車線道路の占有ビット列のうち、ワードwの車を1サイト進める(ルール184)。
+	 * 次のサイトが更新前に空いている車が進む。道路の先頭側のワードから順に呼び出すこと。
+	 * (SingleRoadとLatticeFieldのビット並列の更新で共通に使う)
+	 *
+	 * @param words 占有ビット列
+	 * @param w     更新するワード
+	 * @param end   道路の占有ビット列の終わりのワード(このワードは含まない)
+	 * @param stay  進ませないサイトのビット(交差点へ出る末尾のサイト)
+	 * @param carry 前のワードの最上位ビットから繰り上がってくる車(前のワードの戻り値 >>> 63)
+	 * @return 進んだ車の、進む前のサイトのビット
+	 */
+	static long advance(long[] words, int w, int end, long stay, long carry) {
+		long occ = words[w];
+		if (occ == 0 && carry == 0) return 0;
+
+		// 次のサイトの占有ビット(更新前の状態)
+		long ahead = (occ >>> 1) | (w + 1 < end ? words[w + 1] << 63 : 0);
+		long movers = occ & ~ahead & ~stay;
+		words[w] = (occ & ~movers) | (movers << 1) | carry;
+		return movers;
+	}
+}
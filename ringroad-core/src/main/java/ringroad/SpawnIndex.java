@@ -0,0 +1,116 @@
+package ringroad;
+
+/**
+ * 車を発生させる位置を、空き容量に比例した確率で選ぶための索引
+ *
+ * 交差点ごとの空き容量(交差点サイトと、その交差点から伸びる道路サイトの
+ * 空きスロット数の合計)をFenwick木に格納する。
+ * 空きスロット全体の中から一様に1つ選ぶ操作が O(log 交差点数) で行なえる。
+ *
+ * 空き容量は車の移動で変化するため、発生させる直前に build() で作り直す。
+ * (LatticeFieldは交差点ごとの空き容量を配列で渡す)
+ * 作り直しは交差点数に比例する時間で済み、サイト数に比例する update() より十分軽い。
+ */
+class SpawnIndex {
+
+	// Fenwick木 (1-origin)
+	private final int[] tree;
+
+	// 空き容量の合計
+	private int total;
+
+	// find() で選んだ交差点の中での空きスロットの番号
+	private int remainder;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param n 交差点数
+	 */
+	SpawnIndex(int n) {
+		tree = new int[n + 1];
+	}
+
+	/**
+	 * 交差点ごとの空き容量から索引を作り直す
+	 *
+	 * @param intersections 交差点の配列(交差点番号 x * numY + y の順に格納する)
+	 */
+	void build(Intersection[][] intersections) {
+		int n = tree.length - 1;
+		int numY = intersections[0].length;
+		total = 0;
+		for (int i = 1; i <= n; i++) {
+			int k = i - 1;
+			int free = intersections[k / numY][k % numY].freeSpace();
+			tree[i] = free;
+			total += free;
+		}
+		accumulate();
+	}
+
+	/**
+	 * 交差点ごとの空き容量から索引を作り直す
+	 *
+	 * @param free 交差点ごとの空き容量(交差点番号 x * numY + y の順に格納する)
+	 */
+	void build(int[] free) {
+		int n = tree.length - 1;
+		total = 0;
+		for (int i = 1; i <= n; i++) {
+			tree[i] = free[i - 1];
+			total += free[i - 1];
+		}
+		accumulate();
+	}
+
+	// 子の値を親に足し込んで、線形時間でFenwick木を構成する
+	private void accumulate() {
+		int n = tree.length - 1;
+		for (int i = 1; i <= n; i++) {
+			int j = i + (i & -i);
+			if (j <= n) tree[j] += tree[i];
+		}
+	}
+
+	/**
+	 * 空き容量の合計
+	 */
+	int total() {
+		return total;
+	}
+
+	/**
+	 * 全体でr番目(0 <= r < total())の空きスロットを含む交差点の番号を返す。
+	 * その交差点の中での空きスロットの番号は remainder() で取得する。
+	 */
+	int find(int r) {
+		int n = tree.length - 1;
+		int pos = 0;
+		for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+			if (pos + step <= n && tree[pos + step] <= r) {
+				pos += step;
+				r -= tree[pos];
+			}
+		}
+		remainder = r;
+		return pos;
+	}
+
+	/**
+	 * 直前の find() で選んだ交差点の中での空きスロットの番号
+	 */
+	int remainder() {
+		return remainder;
+	}
+
+	/**
+	 * 交差点kの空き容量をdeltaだけ変更する
+	 */
+	void add(int k, int delta) {
+		total += delta;
+		for (int i = k + 1; i < tree.length; i += (i & -i)) {
+			tree[i] += delta;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package ringroad;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * チェックポイントの保存と復元のテスト
+ */
+public class CheckpointTest {
+
+	private static final int[] LANES = {3, 2, 1, 1};
+
+	// 比較するステップ数
+	private static final int STEPS = 400;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 保存して復元したFieldは、保存したFieldと各ステップの動いた台数・車の台数が一致し、
+	 * 最後の車の配置も一致する
+	 */
+	@Test
+	public void loadedFieldContinuesIdentically() throws IOException {
+		Field field = new GradualField(10, 10, LANES, 5);
+		field.setSeed(7);
+		field.setSpawnProbability(2.0);
+		field.setConstantDensity(true);
+		for (int step = 0; step < 300; step++) {
+			field.update();
+		}
+		File file = folder.newFile("field.rrc");
+		Checkpoint.save(field, file);
+		Field loaded = Checkpoint.load(file);
+		assertEquals(GradualField.class, loaded.getClass());
+		assertEquals(field.carCount, loaded.carCount);
+		assertEquals(field.isConstantDensity(), loaded.isConstantDensity());
+
+		for (int step = 0; step < STEPS; step++) {
+			assertEquals("ステップ " + step + " の動いた台数", field.update(), loaded.update());
+			assertEquals("ステップ " + step + " の車の台数", field.carCount, loaded.carCount);
+		}
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				for (int isec = 0; isec < 4; isec++) {
+					for (int step = 0; step <= field.lengthAt(x, y, isec); step++) {
+						assertEquals(field.numCarsByPosition(x, y, isec, step),
+								loaded.numCarsByPosition(x, y, isec, step));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 保存できないFieldを渡しても、既存のファイルは書き換えられない
+	 */
+	@Test
+	public void rejectedSaveKeepsExistingFile() throws IOException {
+		Field field = new Field(10, 10, 4, 5);
+		field.setSeed(7);
+		field.update();
+		File file = folder.newFile("field.rrc");
+		Checkpoint.save(field, file);
+		byte[] saved = Files.readAllBytes(file.toPath());
+
+		Field interchange = new GradualField(10, 10, LANES, 5, IntersectionType.inner(4, 2));
+		try {
+			Checkpoint.save(interchange, file);
+			fail("Roundabout以外の交差点を保存できてしまいました");
+		} catch (IllegalArgumentException e) {
+			// 期待どおり
+		}
+		assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+		assertEquals(1, folder.getRoot().list().length);
+	}
+}
@@ -0,0 +1,128 @@
+package ringroad;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * 経路探索器(DynamicRouter)のテスト
+ */
+public class DynamicRouterTest {
+
+	private static final int[] LANES = {3, 2, 1, 1};
+
+	// 比較するステップ数
+	private static final int STEPS = 400;
+
+	// 到達できない距離(DynamicRouterと同じ値)
+	private static final int INF = Integer.MAX_VALUE / 2;
+
+	/**
+	 * 最短経路木を部分的に直した後も、各交差点から各目的地までの距離は
+	 * 同じコストで一から求めた最短距離と一致し、抜ける交差点番号はその距離を実現する
+	 */
+	@Test
+	public void repairedTreeMatchesDijkstra() {
+		Field field = new GradualField(10, 10, LANES, 5);
+		field.setSeed(7);
+		field.setSpawnProbability(3.0);
+		DynamicRouter router = new DynamicRouter(field);
+		router.setWeight(4);
+		router.setInterval(1);
+		field.setRouter(router);
+
+		for (int step = 0; step < STEPS; step++) {
+			field.update();
+			if (step % 20 == 0) assertShortest(field, router);
+		}
+		assertShortest(field, router);
+	}
+
+	/**
+	 * 経路探索器を設定しても、4スレッドで更新した結果は1スレッドの場合と一致する
+	 */
+	@Test
+	public void parallelUpdateMatchesSequential() {
+		Field field = new GradualField(10, 10, LANES, 5);
+		Field parallel = new GradualField(10, 10, LANES, 5);
+		parallel.setThreads(4);
+		for (Field f : new Field[] {field, parallel}) {
+			f.setSeed(3);
+			f.setSpawnProbability(3.0);
+			DynamicRouter router = new DynamicRouter(f);
+			router.setInterval(5);
+			f.setRouter(router);
+		}
+		try {
+			for (int step = 0; step < STEPS; step++) {
+				assertEquals("ステップ " + step + " の動いた台数", field.update(), parallel.update());
+				assertEquals("ステップ " + step + " の車の台数", field.carCount, parallel.carCount);
+			}
+			for (int x = 0; x < field.numX; x++) {
+				for (int y = 0; y < field.numY; y++) {
+					for (int isec = 0; isec < 4; isec++) {
+						for (int step = 0; step <= field.lengthAt(x, y, isec); step++) {
+							assertEquals(field.numCarsByPosition(x, y, isec, step),
+									parallel.numCarsByPosition(x, y, isec, step));
+						}
+					}
+				}
+			}
+		} finally {
+			parallel.close();
+		}
+	}
+
+	// 経路探索器のコストで各目的地への最短距離を一から求め、経路探索器の距離と比べる
+	private static void assertShortest(Field field, DynamicRouter router) {
+		int numY = field.numY;
+		int n = field.numX * numY;
+		for (int d = 0; d < n; d++) {
+			int[] dist = dijkstra(field, router, d);
+			int[] dest = {d / numY, d % numY, 0, 0};
+			for (int k = 0; k < n; k++) {
+				int x = k / numY;
+				int y = k % numY;
+				String at = "(" + x + ", " + y + ") -> (" + dest[0] + ", " + dest[1] + ")";
+				assertEquals(at + " の距離", dist[k], router.distance(x, y, dest[0], dest[1]));
+				if (k == d || dist[k] >= INF) continue;
+				int i = router.next(x, y, dest);
+				Intersection nb = field.getIntersection(x, y).neighbor(i);
+				assertEquals(at + " の抜ける交差点番号", dist[k],
+						router.cost(x, y, i) + dist[nb.thisX * numY + nb.thisY]);
+			}
+		}
+	}
+
+	// 交差点kから目的地dまでの最短距離(全ての交差点を毎回走査する素朴なダイクストラ法)
+	private static int[] dijkstra(Field field, DynamicRouter router, int d) {
+		int numY = field.numY;
+		int n = field.numX * numY;
+		int[] dist = new int[n];
+		boolean[] done = new boolean[n];
+		Arrays.fill(dist, INF);
+		dist[d] = 0;
+		while (true) {
+			int t = -1;
+			for (int k = 0; k < n; k++) {
+				if (!done[k] && dist[k] < INF && (t < 0 || dist[k] < dist[t])) t = k;
+			}
+			if (t < 0) break;
+			done[t] = true;
+			// tへ抜ける道路を持つ交差点の距離を更新する
+			for (int k = 0; k < n; k++) {
+				Intersection is = field.getIntersection(k / numY, k % numY);
+				for (int i = 0; i < 4; i++) {
+					Intersection nb = is.neighbor(i);
+					if (nb == null || is.lengthAt(i) == 0) continue;
+					if (nb.thisX * numY + nb.thisY != t) continue;
+					int dd = router.cost(k / numY, k % numY, i) + dist[t];
+					if (dd < dist[k]) dist[k] = dd;
+				}
+			}
+		}
+		return dist;
+	}
+}
@@ -0,0 +1,67 @@
+package ringroad;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/**
+ * 車を発生させないField.update()がオブジェクトを割り当てないことのテスト
+ *
+ * 割り当てたバイト数はスレッドごとの累計(ThreadMXBean.getThreadAllocatedBytes)の差で数える。
+ * JITコンパイル前は脱出解析が効かないので、別のFieldで十分に更新してから測る。
+ */
+public class FieldAllocationTest {
+
+	// 測定するステップ数
+	private static final int STEPS = 200;
+
+	// 1ステップあたりに許す割り当て(測定そのものの誤差分)
+	private static final double TOLERANCE = 16;
+
+	@Test
+	public void updateDoesNotAllocate() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(mx.isThreadAllocatedMemorySupported());
+		mx.setThreadAllocatedMemoryEnabled(true);
+
+		// ウォームアップ
+		for (int i = 0; i < 20; i++) {
+			Field warm = newField(i);
+			for (int step = 0; step < STEPS; step++) {
+				warm.update();
+			}
+		}
+
+		// 到着した車の登録用のリストなどが伸びきるまで更新してから測る
+		Field field = newField(100);
+		for (int step = 0; step < STEPS / 2; step++) {
+			field.update();
+		}
+		int cars = field.carCount;
+		long id = Thread.currentThread().getId();
+		long before = mx.getThreadAllocatedBytes(id);
+		for (int step = 0; step < STEPS; step++) {
+			field.update();
+		}
+		long bytes = mx.getThreadAllocatedBytes(id) - before;
+
+		assertTrue("車が残っていないと測定になりません", field.carCount > 0 && cars > field.carCount);
+		assertTrue("1ステップあたり " + (double) bytes / STEPS + " バイト割り当てています",
+				(double) bytes / STEPS < TOLERANCE);
+	}
+
+	// 初期密度0.4で車を置き、新しい車は発生させないField
+	// (測定の間に車が抜けきらず、渋滞もしない大きさ)
+	private static Field newField(long seed) {
+		Field field = new GradualField(10, 20, new int[] {3, 2, 2, 1, 1, 1, 1, 1}, 10);
+		field.setSeed(seed);
+		field.initialize(0.4);
+		field.setSpawnProbability(0);
+		return field;
+	}
+}
@@ -0,0 +1,80 @@
+package ringroad;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Fieldの基本的な性質のテスト
+ */
+public class FieldTest {
+
+	// 比較するステップ数
+	private static final int STEPS = 2000;
+
+	/**
+	 * 同じネットワーク・同じ乱数の種なら、各ステップの動いた台数と車の台数が一致する
+	 */
+	@Test
+	public void sameSeedReproduces() {
+		assertArrayEquals(run(7), run(7));
+	}
+
+	/**
+	 * 全サイト数は道路サイトと交差点サイトの合計になる
+	 */
+	@Test
+	public void siteCountIncludesIntersections() {
+		Field field = new Field(10, 10, 4, 5);
+		int sites = 0;
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				for (int isec = 0; isec < 4; isec++) {
+					sites += field.lengthAt(x, y, isec);
+				}
+				sites += field.getIntersection(x, y).capacity();
+			}
+		}
+		assertEquals(sites, field.siteCount);
+	}
+
+	/**
+	 * close()で更新用のワーカスレッドが終了し、その後も1スレッドで更新できる
+	 */
+	@Test
+	public void closeStopsWorkers() {
+		Field field = new GradualField(10, 10, new int[] {3, 2, 1, 1}, 5);
+		field.setSeed(7);
+		field.setSpawnProbability(3.0);
+		field.setThreads(3);
+		field.update();
+		assertEquals(2, sectorThreads());
+		field.close();
+		assertEquals(0, sectorThreads());
+		field.update();
+		field.close();
+	}
+
+	// 動いているセクタのワーカスレッドの数
+	private static int sectorThreads() {
+		int n = 0;
+		for (Thread t : Thread.getAllStackTraces().keySet()) {
+			if (t.getName().startsWith("ringroad-sector-") && t.isAlive()) n++;
+		}
+		return n;
+	}
+
+	// GradualFieldを更新し、各ステップの動いた台数と車の台数を返す
+	private static int[] run(long seed) {
+		Field field = new GradualField(10, 10, new int[] {3, 2, 1, 1}, 5);
+		field.setSeed(seed);
+		field.setSpawnProbability(3.0);
+		int[] trace = new int[STEPS * 2];
+		for (int step = 0; step < STEPS; step++) {
+			trace[step * 2] = field.update();
+			trace[step * 2 + 1] = field.carCount;
+		}
+		return trace;
+	}
+}
@@ -0,0 +1,82 @@
+package ringroad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 立体交差(Interchange)のテスト
+ */
+public class InterchangeTest {
+
+	// 比較するステップ数
+	private static final int STEPS = 5000;
+
+	/**
+	 * 全ての交差点が立体交差で車が溢れる場合も、車の台数は全サイト数を超えず、
+	 * 各サイトの台数の合計と一致し、3スレッドで更新しても1スレッドと同じ結果になる
+	 */
+	@Test
+	public void saturatedNetworkKeepsCarsOnSites() {
+		int[] lanes = {1, 1, 1, 1};
+		Field field = new GradualField(10, 10, lanes, 5, IntersectionType.inner(4, 4));
+		Field parallel = new GradualField(10, 10, lanes, 5, IntersectionType.inner(4, 4));
+		field.setSeed(3);
+		parallel.setSeed(3);
+		field.setSpawnProbability(50);
+		parallel.setSpawnProbability(50);
+		parallel.setThreads(3);
+		try {
+			for (int step = 0; step < STEPS; step++) {
+				assertEquals("ステップ " + step + " の動いた台数", field.update(), parallel.update());
+				assertEquals("ステップ " + step + " の車の台数", field.carCount, parallel.carCount);
+				assertTrue("ステップ " + step + " で全サイト数を超えています",
+						field.carCount <= field.siteCount);
+				if (step % 100 == 0)
+					assertEquals(field.carCount, carsOnSites(field));
+			}
+		} finally {
+			parallel.close();
+		}
+	}
+
+	/**
+	 * 直進する車はステップの間に待ち場所に残らないので、ステップの間に交差点サイトにいるのは
+	 * キューの車(交差点の容量まで)だけである
+	 */
+	@Test
+	public void intersectionHoldsAtMostItsCapacity() {
+		Field field = new GradualField(10, 10, new int[] {1, 1, 1, 1}, 5, IntersectionType.inner(4, 4));
+		field.setSeed(5);
+		field.setSpawnProbability(0.5);
+		for (int step = 0; step < 3000; step++) {
+			field.update();
+			for (int x = 0; x < field.numX; x++) {
+				for (int y = 0; y < field.numY; y++) {
+					int n = 0;
+					for (int isec = 0; isec < 4; isec++) {
+						n += field.numCarsByPosition(x, y, isec, 0);
+					}
+					assertTrue(n <= field.getIntersection(x, y).capacity());
+				}
+			}
+		}
+		assertEquals(field.carCount, carsOnSites(field));
+	}
+
+	// 全てのサイトの車の台数の合計
+	static int carsOnSites(Field field) {
+		int n = 0;
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				for (int isec = 0; isec < 4; isec++) {
+					for (int step = 0; step <= field.lengthAt(x, y, isec); step++) {
+						n += field.numCarsByPosition(x, y, isec, step);
+					}
+				}
+			}
+		}
+		return n;
+	}
+}
@@ -0,0 +1,104 @@
+package ringroad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * LatticeFieldがFieldと同じ更新をすることのテスト
+ */
+public class LatticeFieldTest {
+
+	private static final int[] LANES = {3, 2, 1, 1};
+
+	// 比較するステップ数
+	private static final int STEPS = 400;
+
+	/**
+	 * ビット並列カーネルの有無で、各ステップの動いた台数と最後の車の配置が一致する
+	 */
+	@Test
+	public void bitKernelMatchesScalarKernel() {
+		LatticeField bits = new LatticeField(10, 10, LANES, 5);
+		LatticeField scalar = new LatticeField(10, 10, LANES, 5);
+		bits.setBitKernel(true);
+		scalar.setBitKernel(false);
+		for (LatticeField l : new LatticeField[] {bits, scalar}) {
+			l.setSeed(7);
+			l.initialize(0.3);
+			l.setSpawnProbability(1.5);
+		}
+
+		for (int step = 0; step < STEPS; step++) {
+			assertEquals("ステップ " + step + " の動いた台数", scalar.update(), bits.update());
+			assertEquals("ステップ " + step + " の車の台数", scalar.carCount, bits.carCount);
+		}
+		for (int x = 0; x < bits.numX; x++) {
+			for (int y = 0; y < bits.numY; y++) {
+				for (int isec = 0; isec < 4; isec++) {
+					for (int step = 0; step <= length(bits, y, isec); step++) {
+						assertEquals(scalar.numCarsByPosition(x, y, isec, step),
+								bits.numCarsByPosition(x, y, isec, step));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * GradualFieldからコピーしたLatticeFieldは、同じ乱数の種で更新すれば
+	 * 各ステップの動いた台数と最後の車の配置がGradualFieldと一致する
+	 * (車の発生位置と目的地も同じ順に乱数を引いて決める)
+	 */
+	@Test
+	public void matchesGradualField() {
+		Field field = new GradualField(10, 10, LANES, 5);
+		field.setSeed(7);
+		field.setSpawnProbability(4.0);
+		for (int step = 0; step < 300; step++) {
+			field.update();
+		}
+		LatticeField lattice = new LatticeField(field);
+		lattice.setSpawnProbability(4.0);
+		field.setSeed(11);
+		lattice.setSeed(11);
+		assertEquals(field.carCount, lattice.carCount);
+
+		for (int step = 0; step < STEPS; step++) {
+			assertEquals("ステップ " + step + " の動いた台数", field.update(), lattice.update());
+			assertEquals("ステップ " + step + " の車の台数", field.carCount, lattice.carCount);
+		}
+		for (int x = 0; x < field.numX; x++) {
+			for (int y = 0; y < field.numY; y++) {
+				for (int isec = 0; isec < 4; isec++) {
+					for (int step = 0; step <= field.lengthAt(x, y, isec); step++) {
+						assertEquals(field.numCarsByPosition(x, y, isec, step),
+								lattice.numCarsByPosition(x, y, isec, step));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 全てのサイトが埋まっていても、update()は例外を投げずに発生させられなかった台数を返す
+	 */
+	@Test
+	public void fullNetworkDoesNotThrow() {
+		LatticeField lattice = new LatticeField(10, 10, LANES, 5);
+		lattice.setSeed(7);
+		lattice.initialize(1.0);
+		lattice.setSpawnProbability(5.0);
+		lattice.update();
+		assertTrue(lattice.getUnspawned() > 0);
+		assertEquals(lattice.siteCount, lattice.carCount);
+	}
+
+	// 環状道路yの交差点から交差点番号isecへ伸びる道路の長さ
+	private static int length(LatticeField l, int y, int isec) {
+		if (isec % 2 == 0) return l.dX[y];
+		if (isec == 1) return (y == 0 ? 0 : l.dY);
+		return (y == l.numY - 1 ? 0 : l.dY);
+	}
+}
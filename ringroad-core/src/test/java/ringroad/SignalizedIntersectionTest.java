@@ -0,0 +1,76 @@
+package ringroad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 信号交差点(SignalizedIntersection)のテスト
+ */
+public class SignalizedIntersectionTest {
+
+	private static final int[] LANES = {3, 2, 1, 1};
+
+	// 比較するステップ数
+	private static final int STEPS = 3000;
+
+	/**
+	 * 内側の環状道路が信号交差点でも、車の台数は発生した台数と消滅した台数の差に等しく、
+	 * 各サイトの台数の合計と一致する
+	 */
+	@Test
+	public void carsAreConserved() {
+		Field field = new GradualField(10, 10, LANES, 5,
+				IntersectionType.inner(4, 2, IntersectionType.SIGNALIZED));
+		field.setSeed(5);
+		field.setSpawnProbability(2.0);
+		int expected = 0;
+		int deleted = 0;
+		for (int step = 0; step < STEPS; step++) {
+			field.update();
+			expected += field.getSpawned() - field.getDeleted();
+			deleted += field.getDeleted();
+			assertEquals("ステップ " + step + " の車の台数", expected, field.carCount);
+			assertEquals("ステップ " + step + " の各サイトの台数の合計",
+					field.carCount, InterchangeTest.carsOnSites(field));
+		}
+		assertTrue("目的地に到着した車がありません", deleted > 0);
+	}
+
+	/**
+	 * 全ての交差点が信号交差点で、隣の交差点の道路を読む制御方式を使っても、
+	 * 3スレッドで更新した結果は1スレッドの場合と一致する
+	 */
+	@Test
+	public void parallelUpdateMatchesSequential() {
+		Field field = new GradualField(10, 10, LANES, 5,
+				IntersectionType.inner(4, 4, IntersectionType.SIGNALIZED));
+		Field parallel = new GradualField(10, 10, LANES, 5,
+				IntersectionType.inner(4, 4, IntersectionType.SIGNALIZED));
+		parallel.setThreads(3);
+		for (Field f : new Field[] {field, parallel}) {
+			f.setSeed(3);
+			f.setSpawnProbability(4.0);
+			f.setSignalController(new MaxPressureController(5));
+		}
+		try {
+			for (int step = 0; step < STEPS; step++) {
+				assertEquals("ステップ " + step + " の動いた台数", field.update(), parallel.update());
+				assertEquals("ステップ " + step + " の車の台数", field.carCount, parallel.carCount);
+			}
+			for (int x = 0; x < field.numX; x++) {
+				for (int y = 0; y < field.numY; y++) {
+					for (int isec = 0; isec < 4; isec++) {
+						for (int step = 0; step <= field.lengthAt(x, y, isec); step++) {
+							assertEquals(field.numCarsByPosition(x, y, isec, step),
+									parallel.numCarsByPosition(x, y, isec, step));
+						}
+					}
+				}
+			}
+		} finally {
+			parallel.close();
+		}
+	}
+}
@@ -90,7 +90,7 @@ public class FieldView extends JPanel {
 					int stepMax = field.getIntersection(x, y).lengthAt(isec) + 1;
 					for (int step = 0; step < stepMax; step++) {
 						int[] pos = calcPosition(x, y, isec, step);
-						Color color = field.getColor(x, y, isec, step);
+						Color color = colorOf(field.numCarsByPosition(x, y, isec, step));
 						g.setColor(color);
 						fillPoint(g, pos[0], pos[1]);
 					}
@@ -99,6 +99,22 @@ public class FieldView extends JPanel {
 		}
 	}
 
+	/**
+	 * サイトに入っている車の台数から描画色を選ぶ
+	 */
+	static Color colorOf(int n) {
+		switch (n) {
+		case 0:
+			return Color.WHITE;
+		case 1:
+			return Color.BLACK;
+		case 2:
+			return Color.MAGENTA;
+		default: /* over 3 */
+			return Color.RED;
+		}
+	}
+
 	/**
 	 * Field内の車の座標(x,y,isec,step)から描画ウィンドウ内の描画位置を求める
 	 *
@@ -274,7 +290,7 @@ public class FieldView extends JPanel {
 	 *  車の経路情報を描画する(デバッグ用)
 	 */
 	public void drawCarRoute(Graphics g) {
-		int[][] route = car.route;
+		int[][] route = car.routeTable();
 		int i = 0;
 		g.setColor(Color.BLUE);
 		while (true) {